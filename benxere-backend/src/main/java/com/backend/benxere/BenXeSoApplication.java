@@ -4,6 +4,8 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.util.Map;
+
 @SpringBootApplication
 @EnableScheduling
 public class BenXeSoApplication {
@@ -15,6 +17,10 @@ public class BenXeSoApplication {
         System.setProperty("spring.http.encoding.enabled", "true");
         System.setProperty("spring.http.encoding.force", "true");
         
-        SpringApplication.run(BenXeSoApplication.class, args);
+        SpringApplication application = new SpringApplication(BenXeSoApplication.class);
+        // Take the client address from X-Forwarded-For sent by trusted (private-range) proxies in every
+        // profile, so per-IP limits see the caller; application.yaml is local to each machine.
+        application.setDefaultProperties(Map.of("server.forward-headers-strategy", "native"));
+        application.run(args);
     }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.backend.benxere.entity.Role;
 import com.backend.benxere.entity.User;
 import com.backend.benxere.repository.RoleRepository;
 import com.backend.benxere.repository.UserRepository;
+import com.backend.benxere.service.token.RoleAuthorityTable;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
@@ -37,7 +38,8 @@ public class ApplicationInitConfig {
             prefix = "spring",
             value = "datasource.driverClassName",
             havingValue = "com.mysql.cj.jdbc.Driver")
-    ApplicationRunner applicationRunner(UserRepository userRepository, RoleRepository roleRepository) {
+    ApplicationRunner applicationRunner(UserRepository userRepository, RoleRepository roleRepository,
+                                        RoleAuthorityTable roleAuthorityTable) {
         return args -> {
             if (userRepository.findByEmail(ADMIN_USER_NAME).isEmpty()) {
                 Role customerRole = roleRepository.save(Role.builder()
@@ -72,6 +74,7 @@ public class ApplicationInitConfig {
                         .build();
                 userRepository.save(user);
                 log.warn("admin user has been created with default password: admin, please change it");
+                roleAuthorityTable.refresh();
             }
             log.info("Application initialization completed .....");
         };
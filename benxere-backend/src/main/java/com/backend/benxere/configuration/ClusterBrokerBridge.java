@@ -0,0 +1,91 @@
+package com.backend.benxere.configuration;
+
+import com.backend.benxere.service.cluster.ClusterBus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+/**
+ * Fans broker messages out to the other instances when each runs its own simple broker. Everything
+ * the application sends to {@code /topic/...} or {@code /user/...} is published on the cluster bus and
+ * replayed into the broker channel of every peer. Each peer delivers topic messages to its own
+ * subscribers and resolves user destinations against the sessions connected to it. Resolved
+ * per-session destinations ({@code /queue/...-user<session>}) stay local. In relay mode the external
+ * broker does this, so the bridge is not installed.
+ */
+@Component
+@Slf4j
+public class ClusterBrokerBridge implements ChannelInterceptor {
+    static final String CHANNEL = "broker-messages";
+    private static final String RELAYED_HEADER = "clusterRelayed";
+
+    private final ClusterBus clusterBus;
+    private final MessageChannel brokerChannel;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ClusterBrokerBridge(ClusterBus clusterBus, @Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel) {
+        this.clusterBus = clusterBus;
+        this.brokerChannel = brokerChannel;
+        clusterBus.subscribe(CHANNEL, this::onPeerMessage);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (!clusterBus.isDistributed() || message.getHeaders().containsKey(RELAYED_HEADER)
+                || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null || !(destination.startsWith("/topic/") || destination.startsWith("/user/"))) {
+            return message;
+        }
+
+        Object contentType = message.getHeaders().get(MessageHeaders.CONTENT_TYPE);
+        Object payload = message.getPayload();
+        Envelope envelope = new Envelope(destination, contentType != null ? contentType.toString() : null,
+                payload instanceof String text ? text : null,
+                payload instanceof byte[] bytes ? bytes : null);
+        if (envelope.text() == null && envelope.bytes() == null) {
+            log.warn("Not relaying {} to other instances: unsupported payload {}", destination, payload.getClass());
+            return message;
+        }
+        try {
+            clusterBus.publish(CHANNEL, objectMapper.writeValueAsString(envelope));
+        } catch (JsonProcessingException e) {
+            log.warn("Not relaying {} to other instances: {}", destination, e.getMessage());
+        }
+        return message;
+    }
+
+    private void onPeerMessage(String body) {
+        Envelope envelope;
+        try {
+            envelope = objectMapper.readValue(body, Envelope.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable broker message from another instance: {}", e.getMessage());
+            return;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(envelope.destination());
+        if (envelope.contentType() != null) {
+            accessor.setContentType(MimeType.valueOf(envelope.contentType()));
+        }
+        accessor.setHeader(RELAYED_HEADER, Boolean.TRUE);
+        Object payload = envelope.text() != null ? envelope.text() : envelope.bytes();
+        brokerChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+    }
+
+    record Envelope(String destination, String contentType, String text, byte[] bytes) {
+    }
+}
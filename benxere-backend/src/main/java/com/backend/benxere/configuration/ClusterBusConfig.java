@@ -0,0 +1,45 @@
+package com.backend.benxere.configuration;
+
+import com.backend.benxere.service.cluster.ClusterBus;
+import com.backend.benxere.service.cluster.InProcessClusterBus;
+import com.backend.benxere.service.cluster.LocalClusterBus;
+import com.backend.benxere.service.cluster.StompRelayClusterBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Picks the {@link ClusterBus} with {@code websocket.cluster.bus}: {@code local} for a single
+ * instance, {@code relay} to go through the external STOMP broker, or {@code in-process} to join other
+ * application contexts in the same JVM (tests). Without the property, relay deployments get
+ * {@code relay} and everything else {@code local}.
+ */
+@Configuration
+@Slf4j
+public class ClusterBusConfig {
+
+    @Bean
+    public ClusterBus clusterBus(@Value("${websocket.cluster.bus:}") String bus,
+                                 @Value("${websocket.cluster.network:benxere}") String network,
+                                 @Value("${websocket.cluster.destination-prefix:/topic/benxere-cluster.}") String destinationPrefix,
+                                 @Value("${websocket.cluster.reconnect-delay-ms:5000}") long reconnectDelayMs,
+                                 @Value("${websocket.broker.relay.enabled:false}") boolean relayEnabled,
+                                 @Value("${websocket.broker.relay.host:localhost}") String relayHost,
+                                 @Value("${websocket.broker.relay.port:61613}") int relayPort,
+                                 @Value("${websocket.broker.relay.virtual-host:}") String relayVirtualHost,
+                                 @Value("${websocket.broker.relay.system-login:guest}") String systemLogin,
+                                 @Value("${websocket.broker.relay.system-passcode:guest}") String systemPasscode) {
+        String type = bus.isBlank() ? (relayEnabled ? "relay" : "local") : bus;
+        log.info("Using {} cluster bus", type);
+        return switch (type) {
+            case "relay" -> new StompRelayClusterBus(relayHost, relayPort, systemLogin, systemPasscode,
+                    relayVirtualHost, destinationPrefix, Duration.ofMillis(reconnectDelayMs));
+            case "in-process" -> new InProcessClusterBus(network);
+            case "local" -> new LocalClusterBus();
+            default -> throw new IllegalStateException("Unknown websocket.cluster.bus: " + type);
+        };
+    }
+}
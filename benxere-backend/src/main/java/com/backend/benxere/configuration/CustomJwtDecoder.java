@@ -1,61 +1,63 @@
 package com.backend.benxere.configuration;
 
-import java.text.ParseException;
-import java.util.Objects;
-import javax.crypto.spec.SecretKeySpec;
-
-import com.backend.benxere.service.AuthenticationService;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Lazy;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.backend.benxere.exception.AppException;
+import com.backend.benxere.service.token.JwtTokenVerifier;
+import com.backend.benxere.service.token.VerifiedTokenCache;
 import org.springframework.security.authentication.AuthenticationServiceException;
-import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.stereotype.Component;
 
-import com.backend.benxere.dto.request.IntrospectRequest;
-import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import lombok.RequiredArgsConstructor;
 
 @Component
+@RequiredArgsConstructor
 public class CustomJwtDecoder implements JwtDecoder {
-    @Value("${jwt.signerKey}")
-    private String signerKey;
-
-    @Autowired
-    @Lazy
-    private AuthenticationService authenticationService;
-
-    private NimbusJwtDecoder nimbusJwtDecoder = null;
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Override
     public Jwt decode(String token) throws JwtException {
         if (token == null || token.equals("undefined") || !token.contains(".")) {
             throw new AuthenticationServiceException("Not a valid JWT token");
         }
-        try {
-            var response = authenticationService.introspect(
-                    IntrospectRequest.builder().token(token).build());
 
-            if (!response.isValid()) throw new AuthenticationServiceException("Token invalid");
-        } catch (JOSEException | ParseException e) {
-            throw new AuthenticationServiceException(e.getMessage(), e);
-        }
-
-        if (Objects.isNull(nimbusJwtDecoder)) {
-            SecretKeySpec secretKeySpec = new SecretKeySpec(signerKey.getBytes(), "HS256");
-            nimbusJwtDecoder = NimbusJwtDecoder.withSecretKey(secretKeySpec)
-                    .macAlgorithm(MacAlgorithm.HS256)
-                    .build();
+        Jwt cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
         }
 
+        SignedJWT signedJWT;
         try {
-            return nimbusJwtDecoder.decode(token);
-        } catch (JwtException e) {
-            System.err.println("JWT decoding failed: " + e.getMessage());
+            signedJWT = jwtTokenVerifier.verifyAccessToken(token);
+        } catch (AppException e) {
             throw new AuthenticationServiceException("Token invalid", e);
         }
+        Jwt jwt = toJwt(token, signedJWT);
+        verifiedTokenCache.put(jwt);
+        return jwt;
+    }
+
+    /**
+     * Builds the Spring {@link Jwt} from the already verified token instead of decoding it a second time.
+     * Timestamps are converted to {@link java.time.Instant} as {@code NimbusJwtDecoder} would.
+     */
+    private static Jwt toJwt(String token, SignedJWT signedJWT) {
+        JWTClaimsSet claimsSet = JwtTokenVerifier.claimsOf(signedJWT);
+        Map<String, Object> claims = new LinkedHashMap<>(claimsSet.getClaims());
+        claims.replaceAll((name, value) -> value instanceof Date date ? date.toInstant() : value);
+
+        return Jwt.withTokenValue(token)
+                .headers(headers -> headers.putAll(signedJWT.getHeader().toJSONObject()))
+                .claims(values -> values.putAll(claims))
+                .build();
     }
-}
\ No newline at end of file
+}
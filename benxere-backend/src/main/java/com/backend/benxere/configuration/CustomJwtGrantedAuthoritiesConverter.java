@@ -1,28 +1,36 @@
 package com.backend.benxere.configuration;
 
+import com.backend.benxere.service.token.RoleAuthorityTable;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.stream.Collectors;
 
+/**
+ * Maps the token's role to the shared authority collection of {@link RoleAuthorityTable}. Tokens issued
+ * before the {@code role} claim existed carry the role only in {@code scope} as {@code ROLE_<name>}.
+ */
 public class CustomJwtGrantedAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
-    private final JwtGrantedAuthoritiesConverter defaultGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final RoleAuthorityTable roleAuthorityTable;
+
+    public CustomJwtGrantedAuthoritiesConverter(RoleAuthorityTable roleAuthorityTable) {
+        this.roleAuthorityTable = roleAuthorityTable;
+    }
 
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
-        System.out.println("JWT Claims: " + jwt.getClaims());
-        Collection<GrantedAuthority> authorities = defaultGrantedAuthoritiesConverter.convert(jwt);
-        Collection<String> scopes = jwt.getClaimAsStringList("scope");
-        if (scopes != null) {
-            authorities.addAll(scopes.stream()
-                    .map(scope -> (GrantedAuthority) () -> "ROLE_" + scope)
-                    .collect(Collectors.toList()));
+        String role = jwt.getClaimAsString("role");
+        if (role == null) {
+            String scope = jwt.getClaimAsString("scope");
+            if (scope == null || !scope.startsWith(ROLE_PREFIX) || scope.indexOf(' ') >= 0) {
+                return Collections.emptyList();
+            }
+            role = scope.substring(ROLE_PREFIX.length());
         }
-        System.out.println("Granted Authorities: " + authorities);
-        return authorities != null ? authorities : Collections.emptyList();
+        return roleAuthorityTable.authoritiesFor(role);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package com.backend.benxere.configuration;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JDBC batching for entity writes, so a flush that updates many rows of one table (a whole bus being
+ * boarded, a booking's seats) goes out as a few batched statements instead of one round trip per row.
+ * Inserts of IDENTITY entities are still sent one by one; anything set under
+ * {@code spring.jpa.properties} takes precedence.
+ */
+@Configuration
+public class HibernateBatchingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, "50");
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, "true");
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, "true");
+        };
+    }
+}
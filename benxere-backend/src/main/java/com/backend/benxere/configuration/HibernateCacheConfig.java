@@ -0,0 +1,85 @@
+package com.backend.benxere.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Second-level cache for reference data (Bus, Route, Location, Role, Permission, Coupon) backed by
+ * Ehcache through JCache. Regions and their bounds live in {@code ehcache.xml}; anything set under
+ * {@code spring.jpa.properties} still takes precedence over the defaults below.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
+            properties.putIfAbsent(AvailableSettings.USE_QUERY_CACHE, "true");
+            properties.putIfAbsent(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.putIfAbsent("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+            properties.putIfAbsent("hibernate.javax.cache.uri", "classpath:ehcache.xml");
+            properties.putIfAbsent("hibernate.javax.cache.missing_cache_strategy", "create");
+            properties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, "true");
+        };
+    }
+
+    /**
+     * Publishes hits, misses and hit ratio per cache region (and for the query cache) under
+     * {@code /actuator/metrics/hibernate.cache.*}.
+     */
+    @Bean
+    public MeterBinder hibernateCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+            for (String region : statistics.getSecondLevelCacheRegionNames()) {
+                CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+                if (regionStatistics == null) {
+                    continue;
+                }
+                bindRegion(registry, region, regionStatistics,
+                        CacheRegionStatistics::getHitCount,
+                        CacheRegionStatistics::getMissCount,
+                        CacheRegionStatistics::getPutCount);
+            }
+
+            bindRegion(registry, "query", statistics,
+                    Statistics::getQueryCacheHitCount,
+                    Statistics::getQueryCacheMissCount,
+                    Statistics::getQueryCachePutCount);
+        };
+    }
+
+    private static <T> void bindRegion(MeterRegistry registry, String region, T source,
+                                       ToDoubleFunction<T> hits, ToDoubleFunction<T> misses, ToDoubleFunction<T> puts) {
+        FunctionCounter.builder("hibernate.cache.hits", source, hits)
+                .tag("region", region)
+                .register(registry);
+        FunctionCounter.builder("hibernate.cache.misses", source, misses)
+                .tag("region", region)
+                .register(registry);
+        FunctionCounter.builder("hibernate.cache.puts", source, puts)
+                .tag("region", region)
+                .register(registry);
+        Gauge.builder("hibernate.cache.hit.ratio", source, value -> {
+                    double hit = hits.applyAsDouble(value);
+                    double total = hit + misses.applyAsDouble(value);
+                    return total == 0 ? 0 : hit / total;
+                })
+                .tag("region", region)
+                .register(registry);
+    }
+}
@@ -0,0 +1,141 @@
+package com.backend.benxere.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks how many frames are queued on the client outbound channel per session and sheds load for
+ * non-critical destinations (presence, typing indicators and the like, see
+ * {@code websocket.outbound.non-critical-prefixes}):
+ * <ul>
+ *     <li>coalesce: of several queued frames for the same session and destination only the newest is sent;</li>
+ *     <li>drop: once a session has {@code drop-threshold} frames queued, new non-critical frames are discarded.</li>
+ * </ul>
+ * Everything else, chat messages in particular, is always delivered.
+ */
+@Component
+@Slf4j
+public class OutboundBackpressureInterceptor implements ExecutorChannelInterceptor {
+    private final List<String> nonCriticalPrefixes;
+    private final int dropThreshold;
+
+    private final Map<String, AtomicInteger> queuedBySession = new ConcurrentHashMap<>();
+    private final Map<String, Message<?>> latestBySessionAndDestination = new ConcurrentHashMap<>();
+    private final AtomicInteger totalQueued = new AtomicInteger();
+
+    private final DistributionSummary sessionQueueDepth;
+    private final Counter dropped;
+    private final Counter coalesced;
+
+    public OutboundBackpressureInterceptor(MeterRegistry meterRegistry,
+                                           @Value("${websocket.outbound.non-critical-prefixes:/topic/presence,/topic/typing}") List<String> nonCriticalPrefixes,
+                                           @Value("${websocket.outbound.drop-threshold:50}") int dropThreshold) {
+        this.nonCriticalPrefixes = List.copyOf(nonCriticalPrefixes);
+        this.dropThreshold = dropThreshold;
+        this.sessionQueueDepth = DistributionSummary.builder("websocket.outbound.session.queue.depth")
+                .description("Frames queued for a session when another one is enqueued")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("websocket.outbound.shed").tag("policy", "drop").register(meterRegistry);
+        this.coalesced = Counter.builder("websocket.outbound.shed").tag("policy", "coalesce").register(meterRegistry);
+        meterRegistry.gauge("websocket.outbound.queued", totalQueued);
+        meterRegistry.gauge("websocket.outbound.session.queue.max", queuedBySession,
+                sessions -> sessions.values().stream().mapToInt(AtomicInteger::get).max().orElse(0));
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId == null) {
+            return message;
+        }
+        AtomicInteger queued = queuedBySession.computeIfAbsent(sessionId, id -> new AtomicInteger());
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (isNonCritical(destination)) {
+            if (queued.get() >= dropThreshold) {
+                dropped.increment();
+                return null;
+            }
+            latestBySessionAndDestination.put(coalescingKey(sessionId, destination), message);
+        }
+        sessionQueueDepth.record(queued.incrementAndGet());
+        totalQueued.incrementAndGet();
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (!sent || ex != null) {
+            release(message);
+        }
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (sessionId != null && isNonCritical(destination)) {
+            String key = coalescingKey(sessionId, destination);
+            if (!latestBySessionAndDestination.remove(key, message) && latestBySessionAndDestination.containsKey(key)) {
+                release(message);
+                coalesced.increment();
+                return null;
+            }
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        release(message);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        AtomicInteger queued = queuedBySession.remove(event.getSessionId());
+        if (queued != null) {
+            totalQueued.addAndGet(-queued.get());
+        }
+        String prefix = event.getSessionId() + '|';
+        latestBySessionAndDestination.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private void release(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        AtomicInteger queued = sessionId != null ? queuedBySession.get(sessionId) : null;
+        if (queued != null && queued.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+            totalQueued.decrementAndGet();
+        }
+    }
+
+    private boolean isNonCritical(String destination) {
+        if (destination == null) {
+            return false;
+        }
+        for (String prefix : nonCriticalPrefixes) {
+            if (destination.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String coalescingKey(String sessionId, String destination) {
+        return sessionId + '|' + destination;
+    }
+}
@@ -0,0 +1,28 @@
+package com.backend.benxere.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * The scheduler for the application's {@code @Scheduled} jobs. Without it they would share the
+ * WebSocket broker's scheduler (one thread per core), whose bean stops Boot from creating its own, so a
+ * slow rebuild or purge could hold up the chat write-behind flush and the STOMP heartbeats. The broker
+ * scheduler is left to heartbeats. {@code scheduling.pool-size} defaults to one thread per job, so no
+ * fixed-delay job ever waits for another.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${scheduling.pool-size:16}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("app-scheduler-");
+        // Let an in-flight flush finish before the shutdown flushes run.
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(10);
+        return scheduler;
+    }
+}
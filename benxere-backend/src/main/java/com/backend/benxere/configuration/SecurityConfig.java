@@ -13,6 +13,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import com.backend.benxere.service.CustomOAuth2UserService;
+import com.backend.benxere.service.token.RoleAuthorityTable;
 
 import java.util.Arrays;
 
@@ -27,6 +28,9 @@ public class SecurityConfig {
     @Autowired
     private CustomOAuth2UserService customOAuth2UserService;
 
+    @Autowired
+    private RoleAuthorityTable roleAuthorityTable;
+
     @Autowired
     private OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler;
 
@@ -40,7 +44,6 @@ public class SecurityConfig {
         "/api/bus-images/**",
         "/api/payments/return/**",
         "/api/qrcode/scan", 
-        "/api/qrcode/seat/**",
         "/api/websocket/validate", 
         "/routes",
         "/oauth2/**",
@@ -60,7 +63,7 @@ public class SecurityConfig {
     @Bean
     public JwtAuthenticationConverter jwtAuthenticationConverter() {
         JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(new CustomJwtGrantedAuthoritiesConverter());
+        converter.setJwtGrantedAuthoritiesConverter(new CustomJwtGrantedAuthoritiesConverter(roleAuthorityTable));
         return converter;
     }
 
@@ -21,7 +21,6 @@ import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
-import java.util.List;
 
 @Configuration
 @Order(Ordered.HIGHEST_PRECEDENCE + 99)
@@ -31,6 +30,7 @@ public class WebSocketAuthenticationConfig implements WebSocketMessageBrokerConf
 
     private final JwtDecoder jwtDecoder;
     private final JwtAuthenticationConverter jwtAuthenticationConverter;
+    private final WebSocketTelemetry telemetry;
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
@@ -40,30 +40,23 @@ public class WebSocketAuthenticationConfig implements WebSocketMessageBrokerConf
                 StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
                 
                 if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
-                    log.info("Processing WebSocket CONNECT command");
-                    
-                    List<String> authorization = accessor.getNativeHeader("Authorization");
-                    if (authorization != null && !authorization.isEmpty()) {
-                        String authHeader = authorization.get(0);
-                        
-                        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                    String authHeader = accessor.getFirstNativeHeader("Authorization");
+                    if (authHeader != null) {
+                        if (authHeader.startsWith("Bearer ")) {
                             String token = authHeader.substring(7);
                             try {
-                                log.info("Validating JWT token for WebSocket: {}", token.substring(0, Math.min(10, token.length())) + "...");
                                 Jwt jwt = jwtDecoder.decode(token);
                                 
                                 Authentication auth = jwtAuthenticationConverter.convert(jwt);
                                 accessor.setUser(auth);
                                 SecurityContextHolder.getContext().setAuthentication(auth);
-                                
-                                log.info("Successfully authenticated WebSocket connection for user: {}", auth.getName());
                             } catch (Exception e) {
-                                log.error("Failed to authenticate WebSocket connection: {}", e.getMessage());
+                                telemetry.authFailed(e.getMessage());
                                 throw new AppException(ErrorCode.UNAUTHORIZED, "Invalid authentication token");
                             }
                         }
                     } else {
-                        log.info("No Authorization header found for WebSocket connection, proceeding as anonymous");
+                        log.debug("No Authorization header found for WebSocket connection, proceeding as anonymous");
                     }
                 }
                 
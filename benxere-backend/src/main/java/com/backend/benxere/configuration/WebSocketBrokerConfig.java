@@ -1,9 +1,17 @@
 package com.backend.benxere.configuration;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompReactorNettyCodec;
+import org.springframework.messaging.tcp.reactor.ReactorNettyTcpClient;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -13,15 +21,108 @@ import org.springframework.web.socket.server.standard.ServletServerContainerFact
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Message broker setup. By default an in-memory simple broker serves a single instance. With
+ * {@code websocket.broker.relay.enabled=true} messages go through an external STOMP broker
+ * (RabbitMQ, ActiveMQ) instead, so {@code /topic} and {@code /queue} reach sessions on every instance,
+ * and the user registry is broadcast between instances so {@code /user/...} destinations resolve to
+ * sessions connected elsewhere. Instances that each run a simple broker can still be joined through a
+ * {@link com.backend.benxere.service.cluster.ClusterBus}, which {@link ClusterBrokerBridge} uses to fan
+ * messages out.
+ * <p>
+ * The simple broker negotiates STOMP heartbeats every {@code websocket.heartbeat.interval-ms} in both
+ * directions, so an idle but connected client keeps sending frames and presence can tell it from a dead one.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 @RequiredArgsConstructor
 @Slf4j
 public class WebSocketBrokerConfig implements WebSocketMessageBrokerConfigurer {
+    private static final String USER_REGISTRY_BROADCAST = "/topic/simp-user-registry";
+    private static final String UNRESOLVED_USER_BROADCAST = "/topic/unresolved-user-destination";
+
+    private final OutboundBackpressureInterceptor outboundBackpressureInterceptor;
+    private final ClusterBrokerBridge clusterBrokerBridge;
+
+    @Value("${websocket.transport.message-size-limit:131072}")
+    private int messageSizeLimit;
+
+    @Value("${websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.send-time-limit:20000}")
+    private int sendTimeLimit;
+
+    @Value("${websocket.container.max-frame-buffer-size:32768}")
+    private int maxFrameBufferSize;
+
+    @Value("${websocket.outbound.core-pool-size:4}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.outbound.max-pool-size:16}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.heartbeat.interval-ms:10000}")
+    private long heartbeatMillis;
+
+    @Value("${websocket.broker.relay.enabled:false}")
+    private boolean relayEnabled;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${websocket.broker.relay.client-login:guest}")
+    private String clientLogin;
+
+    @Value("${websocket.broker.relay.client-passcode:guest}")
+    private String clientPasscode;
+
+    @Value("${websocket.broker.relay.system-login:guest}")
+    private String systemLogin;
+
+    @Value("${websocket.broker.relay.system-passcode:guest}")
+    private String systemPasscode;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue", "/user");
+        if (relayEnabled) {
+            log.info("Using external STOMP broker relay at {}:{}", relayHost, relayPort);
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    // Built here because the default client needs reactor-netty-http, which is not on the classpath
+                    .setTcpClient(new ReactorNettyTcpClient<>(relayHost, relayPort, new StompReactorNettyCodec()))
+                    .setClientLogin(clientLogin)
+                    .setClientPasscode(clientPasscode)
+                    .setSystemLogin(systemLogin)
+                    .setSystemPasscode(systemPasscode)
+                    .setUserDestinationBroadcast(UNRESOLVED_USER_BROADCAST)
+                    .setUserRegistryBroadcast(USER_REGISTRY_BROADCAST);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            config.enableSimpleBroker("/topic", "/queue", "/user")
+                    .setHeartbeatValue(new long[]{heartbeatMillis, heartbeatMillis})
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+            config.configureBrokerChannel().interceptors(clusterBrokerBridge);
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
@@ -36,18 +137,31 @@ public class WebSocketBrokerConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*");
     }
     
+    /**
+     * A session whose client cannot absorb {@code send-buffer-size-limit} bytes within
+     * {@code send-time-limit} ms is closed, so one slow client never holds an outbound thread for long.
+     */
     @Override
     public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
-        registration.setMessageSizeLimit(128 * 1024);     
-        registration.setSendBufferSizeLimit(512 * 1024);  
-        registration.setSendTimeLimit(20000);             
+        registration.setMessageSizeLimit(messageSizeLimit);
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit);
+        registration.setSendTimeLimit(sendTimeLimit);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(outboundBackpressureInterceptor);
     }
     
     @Bean
     public ServletServerContainerFactoryBean createWebSocketContainer() {
         ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
-        container.setMaxTextMessageBufferSize(32768);
-        container.setMaxBinaryMessageBufferSize(32768);
+        container.setMaxTextMessageBufferSize(maxFrameBufferSize);
+        container.setMaxBinaryMessageBufferSize(maxFrameBufferSize);
         container.setMaxSessionIdleTimeout(60000L);
         return container;
     }
@@ -58,4 +172,4 @@ public class WebSocketBrokerConfig implements WebSocketMessageBrokerConfigurer {
         converter.setSerializedPayloadClass(String.class);
         return converter;
     }
-}
\ No newline at end of file
+}
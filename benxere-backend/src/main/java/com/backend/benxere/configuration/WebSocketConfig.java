@@ -4,7 +4,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.config.ChannelRegistration;
-import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
@@ -22,27 +21,25 @@ import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
 
+import com.backend.benxere.service.chat.PresenceService;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.List;
-import java.util.Map;
-
 @Configuration
 @EnableWebSocketMessageBroker
 @RequiredArgsConstructor
 @Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String SESSION_TOKEN_PREFIX = "token:";
+    private static final String TOKEN_PARAMETER = "token";
+
     private final JwtDecoder jwtDecoder;
     private final CustomJwtWebSocketAuthenticationConverter authenticationConverter;
-
-    @Override
-    public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue", "/user");
-        config.setApplicationDestinationPrefixes("/app");
-        config.setUserDestinationPrefix("/user");
-    }
+    private final WebSocketTelemetry telemetry;
+    private final PresenceService presenceService;
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -64,96 +61,73 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registration.interceptors(new ChannelInterceptor() {
             @Override
             public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                telemetry.frameReceived();
+                presenceService.touch(message);
                 StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
                 
-                if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
-                    log.info("Processing STOMP CONNECT command");
-                    
-                    logHeaders(accessor);
-                    
+                if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand()) && accessor.getUser() == null) {
                     String token = extractToken(accessor);
                     
                     if (token != null && !token.isEmpty()) {
                         try {
-                            log.info("Decoding JWT token for WebSocket connection: {}", token.substring(0, Math.min(20, token.length())) + "...");
                             Jwt jwt = jwtDecoder.decode(token);
                             Authentication authentication = authenticationConverter.convert(jwt);
                             accessor.setUser(authentication);
-                            log.info("WebSocket authentication successful for user: {}", authentication.getName());
                         } catch (JwtException e) {
-                            log.error("WebSocket JWT authentication failed: {}", e.getMessage());
+                            telemetry.authFailed(e.getMessage());
                         } catch (Exception e) {
-                            log.error("WebSocket authentication failed with unexpected error: {}", e.getMessage(), e);
+                            telemetry.authFailed(e.getMessage());
+                            log.warn("WebSocket authentication failed with unexpected error", e);
                         }
                     } else {
-                        log.warn("No token found for WebSocket connection, proceeding as anonymous");
+                        log.debug("No token found for WebSocket connection, proceeding as anonymous");
                     }
                 }
                 return message;
             }
-            
-            private void logHeaders(StompHeaderAccessor accessor) {
-                log.info("STOMP Headers:");
-                accessor.getMessageHeaders().forEach((key, value) -> {
-                    log.info("  {} = {}", key, value);
-                });
-                
-                Map<String, Object> nativeHeadersObj = accessor.getMessageHeaders().get(StompHeaderAccessor.NATIVE_HEADERS, Map.class);
-                if (nativeHeadersObj != null) {
-                    log.info("Native Headers:");
-                    nativeHeadersObj.forEach((key, value) -> {
-                        log.info("  {} = {}", key, value);
-                    });
-                }
+        });
+    }
+
+    /**
+     * Looks for the token in the places clients send it, in order: {@code Authorization: Bearer},
+     * {@code token}, {@code sessionId: token:<jwt>} and a {@code token=} query parameter.
+     */
+    static String extractToken(StompHeaderAccessor accessor) {
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            return authHeader.substring(BEARER_PREFIX.length());
+        }
+
+        String token = accessor.getFirstNativeHeader("token");
+        if (token != null) {
+            return token;
+        }
+
+        String sessionId = accessor.getFirstNativeHeader("sessionId");
+        if (sessionId != null && sessionId.startsWith(SESSION_TOKEN_PREFIX)) {
+            return sessionId.substring(SESSION_TOKEN_PREFIX.length());
+        }
+
+        return queryParameter(accessor.getFirstNativeHeader("query"), TOKEN_PARAMETER);
+    }
+
+    /** Scans {@code a=1&token=...} for the parameter without splitting the query into an array. */
+    private static String queryParameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        int from = 0;
+        while (from < query.length()) {
+            int end = from;
+            while (end < query.length() && query.charAt(end) != '&' && query.charAt(end) != '?') {
+                end++;
             }
-            
-            private String extractToken(StompHeaderAccessor accessor) {
-                Map<String, Object> nativeHeadersObj = accessor.getMessageHeaders().get(StompHeaderAccessor.NATIVE_HEADERS, Map.class);
-                if (nativeHeadersObj != null) {
-                    List<String> authHeaders = (List<String>) nativeHeadersObj.get("Authorization");
-                    if (authHeaders != null && !authHeaders.isEmpty()) {
-                        String authHeader = authHeaders.get(0);
-                        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                            log.info("Found token in Authorization header");
-                            return authHeader.substring(7);
-                        }
-                    }
-                    
-                    List<String> tokenHeaders = (List<String>) nativeHeadersObj.get("token");
-                    if (tokenHeaders != null && !tokenHeaders.isEmpty()) {
-                        log.info("Found token in token header");
-                        return tokenHeaders.get(0);
-                    }
-                    
-                    List<String> sessionIds = (List<String>) nativeHeadersObj.get("sessionId");
-                    if (sessionIds != null && !sessionIds.isEmpty()) {
-                        String sessionId = sessionIds.get(0);
-                        if (sessionId != null && sessionId.startsWith("token:")) {
-                            log.info("Found token in sessionId");
-                            return sessionId.substring(6);
-                        }
-                    }
-                    
-                    List<String> queries = (List<String>) nativeHeadersObj.get("query");
-                    if (queries != null && !queries.isEmpty()) {
-                        String query = queries.get(0);
-                        if (query != null && query.contains("token=")) {
-                            String[] params = query.split("[&?]");
-                            for (String param : params) {
-                                if (param.startsWith("token=")) {
-                                    String token = param.substring(6);
-                                    log.info("Found token in query parameter: {}", token.substring(0, Math.min(10, token.length())) + "...");
-                                    return token;
-                                }
-                            }
-                        }
-                    }
-                }
-                
-                log.warn("No token found in any header or query parameter");
-                return null;
+            if (end - from > name.length() && query.startsWith(name, from) && query.charAt(from + name.length()) == '=') {
+                return query.substring(from + name.length() + 1, end);
             }
-        });
+            from = end + 1;
+        }
+        return null;
     }
 
     @Override
@@ -164,21 +138,20 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 return new WebSocketHandlerDecorator(handler) {
                     @Override
                     public void afterConnectionEstablished(final WebSocketSession session) throws Exception {
-                        log.info("WebSocket connection established: {}", session.getId());
-                        log.debug("Connection attributes: {}", session.getAttributes());
-                        log.debug("Connection headers: {}", session.getHandshakeHeaders());
+                        log.debug("WebSocket connection established: {}", session.getId());
                         super.afterConnectionEstablished(session);
                     }
 
                     @Override
                     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
-                        log.info("WebSocket connection closed: {}, status: {}", session.getId(), closeStatus);
+                        log.debug("WebSocket connection closed: {}, status: {}", session.getId(), closeStatus);
                         super.afterConnectionClosed(session, closeStatus);
                     }
 
                     @Override
                     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
-                        log.error("WebSocket transport error: {} - {}", session.getId(), exception.getMessage(), exception);
+                        log.warn("WebSocket transport error: {} - {}", session.getId(), exception.getMessage());
+                        log.debug("WebSocket transport error detail", exception);
                         super.handleTransportError(session, exception);
                     }
                 };
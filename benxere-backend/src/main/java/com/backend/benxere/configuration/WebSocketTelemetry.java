@@ -0,0 +1,70 @@
+package com.backend.benxere.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for the STOMP layer plus sampled logging. Per-event detail goes to DEBUG; at INFO only
+ * every {@code websocket.log.sample-every}-th connect is logged together with the running totals, so
+ * a wave of reconnecting clients does not turn into a wave of log lines. Open sessions are tracked by
+ * id because Spring may publish more than one disconnect event for the same session.
+ */
+@Component
+@Slf4j
+public class WebSocketTelemetry {
+    private final Counter connects;
+    private final Counter disconnects;
+    private final Counter authFailures;
+    private final Counter inboundFrames;
+    private final AtomicLong connectSequence = new AtomicLong();
+    private final Set<String> openSessions = ConcurrentHashMap.newKeySet();
+    private final long sampleEvery;
+
+    public WebSocketTelemetry(MeterRegistry meterRegistry,
+                              @Value("${websocket.log.sample-every:100}") long sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+        this.connects = Counter.builder("websocket.connects").register(meterRegistry);
+        this.disconnects = Counter.builder("websocket.disconnects").register(meterRegistry);
+        this.authFailures = Counter.builder("websocket.auth.failures").register(meterRegistry);
+        this.inboundFrames = Counter.builder("websocket.frames.inbound").register(meterRegistry);
+        meterRegistry.gauge("websocket.sessions.open", openSessions, Set::size);
+    }
+
+    public void frameReceived() {
+        inboundFrames.increment();
+    }
+
+    public void connected(String user, String sessionId) {
+        connects.increment();
+        if (sessionId != null) {
+            openSessions.add(sessionId);
+        }
+        if (connectSequence.incrementAndGet() % sampleEvery == 0) {
+            log.info("WebSocket connect sample: user={} session={} connects={} disconnects={} authFailures={} open={}",
+                    user, sessionId, (long) connects.count(), (long) disconnects.count(),
+                    (long) authFailures.count(), openSessions.size());
+        } else {
+            log.debug("WebSocket connected: user={} session={}", user, sessionId);
+        }
+    }
+
+    public void disconnected(String user, String sessionId) {
+        if (sessionId == null || !openSessions.remove(sessionId)) {
+            return;
+        }
+        disconnects.increment();
+        log.debug("WebSocket disconnected: user={} session={}", user, sessionId);
+    }
+
+    public void authFailed(String reason) {
+        authFailures.increment();
+        log.debug("WebSocket authentication failed: {}", reason);
+    }
+}
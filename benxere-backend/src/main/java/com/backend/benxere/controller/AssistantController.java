@@ -1,12 +1,23 @@
 package com.backend.benxere.controller;
 
 import com.backend.benxere.dto.request.ApiResponse;
+import com.backend.benxere.dto.request.BoardingSyncRequest;
+import com.backend.benxere.dto.request.PassengerVerificationRequest;
 import com.backend.benxere.dto.request.QrScanRequest;
 import com.backend.benxere.dto.request.SeatUpdateRequest;
+import com.backend.benxere.dto.response.BoardingManifestResponse;
+import com.backend.benxere.dto.response.BoardingSyncResponse;
+import com.backend.benxere.dto.response.CrewScheduleSummaryResponse;
+import com.backend.benxere.dto.response.PassengerInfoResponse;
+import com.backend.benxere.dto.response.PassengerStatusResultResponse;
 import com.backend.benxere.dto.response.ScheduleResponse;
 import com.backend.benxere.dto.response.SeatResponse;
+import com.backend.benxere.service.AssistantService;
+import com.backend.benxere.service.CurrentUserContext;
 import com.backend.benxere.service.ScheduleService;
 import com.backend.benxere.service.SeatService;
+import com.backend.benxere.service.boarding.BoardingService;
+import com.backend.benxere.service.roster.CrewRosterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
@@ -21,6 +32,10 @@ public class AssistantController {
 
     private final ScheduleService scheduleService;
     private final SeatService seatService;
+    private final BoardingService boardingService;
+    private final AssistantService assistantService;
+    private final CurrentUserContext currentUserContext;
+    private final CrewRosterService crewRosterService;
 
     @GetMapping("/schedules")
     public ApiResponse<List<ScheduleResponse>> getSchedulesForAssistant() {
@@ -29,6 +44,13 @@ public class AssistantController {
                 .build();
     }
 
+    @GetMapping("/schedules/today")
+    public ApiResponse<List<CrewScheduleSummaryResponse>> getTodaySchedules() {
+        return ApiResponse.<List<CrewScheduleSummaryResponse>>builder()
+                .result(crewRosterService.todayFor(currentUserContext.getUserId()))
+                .build();
+    }
+
     @GetMapping("/schedules/{scheduleId}/seats")
     public ApiResponse<List<SeatResponse>> getSeatsByScheduleId(@PathVariable int scheduleId) {
         return ApiResponse.<List<SeatResponse>>builder()
@@ -36,6 +58,38 @@ public class AssistantController {
                 .build();
     }
 
+    @GetMapping("/schedules/{scheduleId}/passengers")
+    public ApiResponse<List<PassengerInfoResponse>> getSchedulePassengers(@PathVariable int scheduleId) {
+        return ApiResponse.<List<PassengerInfoResponse>>builder()
+                .result(assistantService.getSchedulePassengers(scheduleId, currentUserContext.getUserId()))
+                .build();
+    }
+
+    @GetMapping("/schedules/{scheduleId}/boarding-manifest")
+    public ApiResponse<BoardingManifestResponse> getBoardingManifest(@PathVariable int scheduleId) {
+        return ApiResponse.<BoardingManifestResponse>builder()
+                .result(boardingService.getManifest(scheduleId))
+                .build();
+    }
+
+    @PostMapping("/schedules/{scheduleId}/boarding-events")
+    public ApiResponse<BoardingSyncResponse> syncBoardingEvents(
+            @PathVariable int scheduleId,
+            @RequestBody BoardingSyncRequest request) {
+        return ApiResponse.<BoardingSyncResponse>builder()
+                .result(boardingService.syncEvents(scheduleId, request))
+                .build();
+    }
+
+    @PutMapping("/schedules/{scheduleId}/passengers/status")
+    public ApiResponse<List<PassengerStatusResultResponse>> updatePassengerStatuses(
+            @PathVariable int scheduleId,
+            @RequestBody List<PassengerVerificationRequest> requests) {
+        return ApiResponse.<List<PassengerStatusResultResponse>>builder()
+                .result(assistantService.updatePassengerStatuses(currentUserContext.getUserId(), scheduleId, requests))
+                .build();
+    }
+
     @PutMapping("/seats/{seatId}/check-in")
     public ApiResponse<SeatResponse> checkInPassenger(@PathVariable int seatId) {
         return ApiResponse.<SeatResponse>builder()
@@ -2,6 +2,7 @@ package com.backend.benxere.controller;
 
 import java.text.ParseException;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import org.springframework.http.ResponseEntity;
@@ -56,8 +57,9 @@ public class AuthenticationController {
     }
 
     @PostMapping("/token")
-    public ApiResponse<AuthenticationResponse> authenticate(@RequestBody AuthenticationRequest request) {
-        var result = authenticationService.authenticate(request);
+    public ApiResponse<AuthenticationResponse> authenticate(@RequestBody AuthenticationRequest request,
+                                                            HttpServletRequest httpRequest) {
+        var result = authenticationService.authenticate(request, httpRequest.getRemoteAddr());
         return ApiResponse.<AuthenticationResponse>builder().result(result).build();
     }
 
@@ -1,10 +1,13 @@
 package com.backend.benxere.controller;
 
 import com.backend.benxere.dto.request.ChatMessageRequest;
+import com.backend.benxere.dto.request.ChatReadRequest;
+import com.backend.benxere.dto.response.ChatAgentResponse;
 import com.backend.benxere.dto.response.ChatMessageResponse;
-import com.backend.benxere.entity.User;
 import com.backend.benxere.repository.UserRepository;
 import com.backend.benxere.service.ChatService;
+import com.backend.benxere.service.CurrentUserContext;
+import com.backend.benxere.service.chat.PresenceService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,7 +17,6 @@ import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.annotation.SendToUser;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
@@ -25,36 +27,49 @@ import java.util.List;
 @RequestMapping("/api/chat")
 @Slf4j
 public class ChatController {
+    private static final int MAX_PAGE_SIZE = 100;
 
     private final ChatService chatService;
     private final UserRepository userRepository;
+    private final CurrentUserContext currentUserContext;
+    private final PresenceService presenceService;
 
 
     @MessageMapping("/chat.send")
     public void sendMessage(
             @Payload ChatMessageRequest chatMessage,
-            Principal principal) {
+            Principal principal,
+            SimpMessageHeaderAccessor headerAccessor) {
         
-        log.info("Received message from {} to user {}", principal.getName(), chatMessage.getReceiverId());
+        log.debug("Received message from {} to user {}", principal.getName(), chatMessage.getReceiverId());
         
-        User sender = userRepository.findByEmail(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found: " + principal.getName()));
+        Integer senderId = presenceService.userIdOfSession(headerAccessor.getSessionId())
+                .orElseGet(() -> userRepository.findByEmail(principal.getName())
+                        .orElseThrow(() -> new RuntimeException("User not found: " + principal.getName()))
+                        .getUserId());
         
-        chatService.sendMessage(chatMessage, sender.getUserId());
+        chatService.sendMessage(chatMessage, senderId, principal.getName());
     }
 
 
     @MessageMapping("/chat.read")
     public void markAsRead(
-            @Payload Integer senderId,
-            Principal principal) {
+            @Payload ChatReadRequest readRequest,
+            Principal principal,
+            SimpMessageHeaderAccessor headerAccessor) {
         
-        log.info("Marking messages as read from {} to {}", senderId, principal.getName());
+        log.debug("Marking messages as read from {} to {} up to {}", readRequest.getPartnerId(), principal.getName(),
+                readRequest.getLastReadMessageId());
+        if (readRequest.getPartnerId() == null || readRequest.getLastReadMessageId() == null) {
+            return;
+        }
         
-        User receiver = userRepository.findByEmail(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found: " + principal.getName()));
+        Integer receiverId = presenceService.userIdOfSession(headerAccessor.getSessionId())
+                .orElseGet(() -> userRepository.findByEmail(principal.getName())
+                        .orElseThrow(() -> new RuntimeException("User not found: " + principal.getName()))
+                        .getUserId());
         
-        chatService.markMessagesAsRead(senderId, receiver.getUserId());
+        chatService.markMessagesAsRead(readRequest.getPartnerId(), receiverId, readRequest.getLastReadMessageId());
     }
 
 
@@ -68,49 +83,58 @@ public class ChatController {
 
     @GetMapping("/history/all/{otherUserId}")
     public ResponseEntity<List<ChatMessageResponse>> getFullChatHistory(
-            Authentication authentication,
             @PathVariable Integer otherUserId) {
         log.info("Getting full chat history with user {}", otherUserId);
-        User currentUser = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("User not found: " + authentication.getName()));
+        int currentUserId = currentUserContext.getUserId();
         List<ChatMessageResponse> chatHistory = chatService.getChatHistory(
-                currentUser.getUserId(), otherUserId);
+                currentUserId, otherUserId);
         return ResponseEntity.ok(chatHistory);
     }
 
   
     @GetMapping("/unread")
-    public ResponseEntity<List<ChatMessageResponse>> getUnreadMessages(Authentication authentication) {
+    public ResponseEntity<List<ChatMessageResponse>> getUnreadMessages() {
         log.info("Getting unread messages");
         
-        User currentUser = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("User not found: " + authentication.getName()));
+        int currentUserId = currentUserContext.getUserId();
         
-        List<ChatMessageResponse> unreadMessages = chatService.getUnreadMessages(currentUser.getUserId());
+        List<ChatMessageResponse> unreadMessages = chatService.getUnreadMessages(currentUserId);
         
         return ResponseEntity.ok(unreadMessages);
     }
 
+    @GetMapping("/unread/count")
+    public ResponseEntity<com.backend.benxere.dto.response.UnreadCountResponse> getUnreadCount() {
+        return ResponseEntity.ok(chatService.getUnreadCount(currentUserContext.getUserId()));
+    }
+
     @GetMapping("/conversations")
     public ResponseEntity<List<com.backend.benxere.dto.response.ConversationSummaryResponse>> getConversations(
-            Authentication authentication) {
-        User currentUser = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("User not found: " + authentication.getName()));
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        int currentUserId = currentUserContext.getUserId();
         List<com.backend.benxere.dto.response.ConversationSummaryResponse> conversations =
-                chatService.getConversations(currentUser.getUserId());
+                chatService.getConversations(currentUserId, Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
         return ResponseEntity.ok(conversations);
     }
 
+    @GetMapping("/customer-care/agent")
+    public ResponseEntity<ChatAgentResponse> assignCustomerCareAgent(
+            @RequestParam(required = false) Integer busOwnerId) {
+        return ResponseEntity.ok(chatService.assignCustomerCareAgent(busOwnerId));
+    }
+
     @GetMapping("/history/{partnerId}")
     public ResponseEntity<List<ChatMessageResponse>> getPaginatedHistory(
-            Authentication authentication,
             @PathVariable Integer partnerId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        User currentUser = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("User not found: " + authentication.getName()));
-        List<ChatMessageResponse> history = chatService.getChatHistory(
-                currentUser.getUserId(), partnerId, page, size);
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Integer beforeId) {
+        int currentUserId = currentUserContext.getUserId();
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<ChatMessageResponse> history = beforeId != null
+                ? chatService.getChatHistoryBefore(currentUserId, partnerId, beforeId, pageSize)
+                : chatService.getChatHistory(currentUserId, partnerId, page, pageSize);
         return ResponseEntity.ok(history);
     }
 }
\ No newline at end of file
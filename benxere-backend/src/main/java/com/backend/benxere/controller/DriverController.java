@@ -1,12 +1,20 @@
 package com.backend.benxere.controller;
 
+import com.backend.benxere.dto.request.BoardingSyncRequest;
 import com.backend.benxere.dto.request.SeatUpdateRequest;
+import com.backend.benxere.dto.response.BoardingManifestResponse;
+import com.backend.benxere.dto.response.BoardingSyncResponse;
+import com.backend.benxere.dto.response.CrewScheduleSummaryResponse;
+import com.backend.benxere.dto.response.PassengerInfoResponse;
 import com.backend.benxere.dto.response.ScheduleResponse;
 import com.backend.benxere.dto.response.SeatResponse;
 import com.backend.benxere.mapper.ScheduleMapper;
+import com.backend.benxere.service.CurrentUserContext;
 import com.backend.benxere.service.ScheduleService;
 import com.backend.benxere.service.ScheduleStatusService;
 import com.backend.benxere.service.SeatService;
+import com.backend.benxere.service.boarding.BoardingService;
+import com.backend.benxere.service.roster.CrewRosterService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,17 +29,42 @@ public class DriverController {
     private final SeatService seatService;
     private final ScheduleStatusService scheduleStatusService;
     private final ScheduleMapper scheduleMapper;
+    private final BoardingService boardingService;
+    private final CrewRosterService crewRosterService;
+    private final CurrentUserContext currentUserContext;
 
     @GetMapping("/schedules")
     public List<ScheduleResponse> getSchedulesByCurrentUser() {
         return scheduleService.getScheduleByCurrentDriver();
     }
     
+    @GetMapping("/schedules/today")
+    public List<CrewScheduleSummaryResponse> getTodaySchedules() {
+        return crewRosterService.todayFor(currentUserContext.getUserId());
+    }
+
     @GetMapping("/schedules/{scheduleId}/seats")
     public ResponseEntity<List<SeatResponse>> getSeatsBySchedule(@PathVariable int scheduleId) {
         return ResponseEntity.ok(seatService.getSeatsByScheduleId(scheduleId));
     }
     
+    @GetMapping("/schedules/{scheduleId}/passengers")
+    public ResponseEntity<List<PassengerInfoResponse>> getSchedulePassengers(@PathVariable int scheduleId) {
+        return ResponseEntity.ok(boardingService.getPassengers(scheduleId));
+    }
+
+    @GetMapping("/schedules/{scheduleId}/boarding-manifest")
+    public ResponseEntity<BoardingManifestResponse> getBoardingManifest(@PathVariable int scheduleId) {
+        return ResponseEntity.ok(boardingService.getManifest(scheduleId));
+    }
+
+    @PostMapping("/schedules/{scheduleId}/boarding-events")
+    public ResponseEntity<BoardingSyncResponse> syncBoardingEvents(
+            @PathVariable int scheduleId,
+            @RequestBody BoardingSyncRequest request) {
+        return ResponseEntity.ok(boardingService.syncEvents(scheduleId, request));
+    }
+
     @GetMapping("/seats/{seatId}")
     public ResponseEntity<SeatResponse> getSeatById(@PathVariable int seatId) {
         return ResponseEntity.ok(seatService.getSeatById(seatId));
@@ -62,8 +62,9 @@ public class LocationController {
         locationService.deleteLocation(id);
     }
     @GetMapping("/recommendations")
-    public List<PickupDropoffLocationResponse> getLocationRecommendations(@RequestParam String query) {
-        return locationService.getLocationRecommendations(query);
+    public List<PickupDropoffLocationResponse> getLocationRecommendations(@RequestParam String query,
+                                                                          @RequestParam(defaultValue = "10") int limit) {
+        return locationService.getLocationRecommendations(query, limit);
     }
     @GetMapping("/pick-up/schedules/{id}")
     public List<PickupDropoffLocationResponse> getPickUpSchedules(@PathVariable int id) {
@@ -6,13 +6,21 @@ import com.backend.benxere.dto.response.SeatResponse;
 import com.backend.benxere.service.SeatService;
 import com.backend.benxere.service.qrcode.QRCodeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 @RestController
 @RequestMapping("/api/qrcode")
 @RequiredArgsConstructor
 public class QRCodeController {
-
     private final SeatService seatService;
     private final QRCodeService qrCodeService;
 
@@ -24,11 +32,30 @@ public class QRCodeController {
     }
 
 
-    @GetMapping("/seat/{seatId}")
-    public ApiResponse<String> getSeatQRCode(@PathVariable int seatId) {
-        SeatResponse seat = seatService.getSeatById(seatId);
-        return ApiResponse.<String>builder()
-                .result(seat.getQrCodeData())
-                .build();
+    /**
+     * The seat's QR code as a PNG. Clients must revalidate on every request; the ETag is a SHA-256 of the
+     * signed payload, so they get a 304 until the ticket is re-issued and the new image right after.
+     */
+    @GetMapping(value = "/seat/{seatId}", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getSeatQRCode(@PathVariable int seatId, WebRequest webRequest) {
+        String payload = seatService.getSeatQRCodePayload(seatId);
+        String etag = "\"" + sha256Hex(payload) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .body(qrCodeService.renderPng(payload));
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,10 +2,13 @@ package com.backend.benxere.controller;
 
 import com.backend.benxere.dto.request.ScheduleRequest;
 import com.backend.benxere.dto.response.ScheduleResponse;
+import com.backend.benxere.dto.response.TripItineraryResponse;
 import com.backend.benxere.service.ScheduleService;
+import com.backend.benxere.service.routing.RouteGraphService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -17,6 +20,9 @@ public class ScheduleController {
     @Autowired
     private ScheduleService scheduleService;
 
+    @Autowired
+    private RouteGraphService routeGraphService;
+
     @PostMapping("/create")
     public ScheduleResponse createSchedule(@RequestBody ScheduleRequest scheduleRequest) {
         return scheduleService.createSchedule(scheduleRequest);
@@ -51,6 +57,17 @@ public class ScheduleController {
         LocalDate parsedDate = LocalDate.parse(date, formatter);
         return scheduleService.getSchedulesByOriginAndDestinationAndDate(originCode, destinationCode, parsedDate);
     }
+    @GetMapping("/search/connections")
+    public List<TripItineraryResponse> searchConnections(@RequestParam String originCode,
+                                                         @RequestParam String destinationCode,
+                                                         @RequestParam String date,
+                                                         @RequestParam(defaultValue = "30") int minTransferMinutes,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+        LocalDate parsedDate = LocalDate.parse(date, formatter);
+        return routeGraphService.findItineraries(originCode, destinationCode, parsedDate,
+                Duration.ofMinutes(Math.max(0, minTransferMinutes)), Math.max(1, Math.min(limit, 50)));
+    }
     @GetMapping("/bus/{busId}")
     public List<ScheduleResponse> getSchedulesByBusId(@PathVariable int busId) {
         return scheduleService.getSchedulesByBusId(busId);
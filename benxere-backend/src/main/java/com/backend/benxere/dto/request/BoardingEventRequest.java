@@ -0,0 +1,20 @@
+package com.backend.benxere.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardingEventRequest {
+    /** Generated on the device; re-sending an event with the same id has no further effect. */
+    private String eventId;
+    private Integer seatId;
+    /** CHECK_IN or CHECK_OUT. */
+    private String type;
+    private LocalDateTime occurredAt;
+    private Integer baggageCount;
+}
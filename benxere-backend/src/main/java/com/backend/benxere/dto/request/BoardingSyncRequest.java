@@ -0,0 +1,14 @@
+package com.backend.benxere.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardingSyncRequest {
+    private List<BoardingEventRequest> events;
+}
@@ -0,0 +1,16 @@
+package com.backend.benxere.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatReadRequest {
+    private Integer partnerId;
+    /** The newest message of the conversation the client has shown; everything up to it is read. */
+    private Integer lastReadMessageId;
+}
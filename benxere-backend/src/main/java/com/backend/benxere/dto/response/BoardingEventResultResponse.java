@@ -0,0 +1,18 @@
+package com.backend.benxere.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardingEventResultResponse {
+    private String eventId;
+    private Integer seatId;
+    /** APPLIED, DUPLICATE or REJECTED. */
+    private String result;
+    private String message;
+}
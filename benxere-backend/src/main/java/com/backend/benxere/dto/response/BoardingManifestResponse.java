@@ -0,0 +1,20 @@
+package com.backend.benxere.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardingManifestResponse {
+    private int scheduleId;
+    private LocalDateTime departureTime;
+    private LocalDateTime generatedAt;
+    private List<BoardingPassResponse> passengers;
+}
@@ -0,0 +1,25 @@
+package com.backend.benxere.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardingPassResponse {
+    private int seatId;
+    private String seatNumber;
+    /** Signed ticket exactly as encoded in the passenger's QR code; null for seats without one. */
+    private String ticketToken;
+    private String passengerName;
+    private String phoneNumber;
+    private String passengerStatus;
+    private LocalDateTime checkInTime;
+    private LocalDateTime checkOutTime;
+    private Integer baggageCount;
+}
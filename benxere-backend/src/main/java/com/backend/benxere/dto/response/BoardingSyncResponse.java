@@ -0,0 +1,20 @@
+package com.backend.benxere.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardingSyncResponse {
+    private int applied;
+    private int duplicates;
+    private int rejected;
+    /** One result per submitted event, in submission order. */
+    private List<BoardingEventResultResponse> results;
+}
@@ -16,5 +16,7 @@ public class ConversationSummaryResponse {
     private String partnerEmail;
     private long unreadCount;
     private String lastMessage;
+    private Integer lastMessageId;
     private LocalDateTime lastMessageTime;
+    private boolean online;
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.backend.benxere.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrewScheduleSummaryResponse {
+    private int scheduleId;
+    private String routeName;
+    private String origin;
+    private String destination;
+    private String busNumber;
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+    private String status;
+    /** DRIVER, SECOND_DRIVER or ASSISTANT. */
+    private String crewRole;
+}
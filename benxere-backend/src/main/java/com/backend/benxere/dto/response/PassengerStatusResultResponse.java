@@ -0,0 +1,22 @@
+package com.backend.benxere.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PassengerStatusResultResponse {
+    private Integer seatId;
+    private boolean success;
+    private String message;
+    private String passengerStatus;
+    private LocalDateTime boardingTime;
+    private LocalDateTime disembarkingTime;
+    private Integer luggageCount;
+}
@@ -24,7 +24,6 @@ public class SeatResponse {
     private Integer baggageCount;
     private Integer lastUpdatedBy;
     private LocalDateTime lastUpdatedAt;
-    private String qrCodeData;
     private Integer qrCodeScannedCount;
     private LocalDateTime lastQrScanTime;
 }
\ No newline at end of file
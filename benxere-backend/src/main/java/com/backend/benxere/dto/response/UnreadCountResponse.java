@@ -0,0 +1,18 @@
+package com.backend.benxere.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnreadCountResponse {
+    private int total;
+    /** Unread count per partner id; pushes only carry the conversation that changed. */
+    private Map<Integer, Integer> conversations;
+}
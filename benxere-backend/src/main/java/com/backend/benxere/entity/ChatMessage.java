@@ -15,8 +15,8 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatMessage {
+    /** Assigned by {@code ChatMessageIdAllocator} before the row is written; the column does not generate ids. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
     
     @Column(nullable = false, columnDefinition = "TEXT")
@@ -33,7 +33,10 @@ public class ChatMessage {
     @Column(name = "is_read", nullable = false)
     private boolean isRead;
     
-    @Column(name = "sent_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @Column(name = "conversation_key", nullable = false)
+    private Long conversationKey;
+    
+    @Column(name = "sent_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6)")
     private LocalDateTime sentAt = LocalDateTime.now();
 
     @PrePersist
@@ -41,5 +44,16 @@ public class ChatMessage {
         if (this.sentAt == null) {
             this.sentAt = LocalDateTime.now();
         }
+        if (this.conversationKey == null) {
+            this.conversationKey = conversationKey(sender.getUserId(), receiver.getUserId());
+        }
+    }
+
+    /**
+     * The same key for both directions of a conversation: lower user id in the high 32 bits,
+     * higher user id in the low 32 bits.
+     */
+    public static long conversationKey(int userId, int otherUserId) {
+        return ((long) Math.min(userId, otherUserId) << 32) | Math.max(userId, otherUserId);
     }
 }
\ No newline at end of file
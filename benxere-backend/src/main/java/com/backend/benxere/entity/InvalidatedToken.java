@@ -2,6 +2,7 @@ package com.backend.benxere.entity;
 
 import java.util.Date;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 
@@ -20,4 +21,8 @@ public class InvalidatedToken {
     String id;
 
     Date expiryTime;
+
+    /** Set by the database when the row is inserted. */
+    @Column(insertable = false, updatable = false)
+    Date revokedAt;
 }
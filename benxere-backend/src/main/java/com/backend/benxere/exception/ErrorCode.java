@@ -44,7 +44,17 @@ public enum ErrorCode {
     CHAT_ROOM_NOT_FOUND(1032, "Chat room not found", HttpStatus.NOT_FOUND),
     INVALID_REQUEST(1033, "Invalid request", HttpStatus.BAD_REQUEST),
     VOICE_CALL_NOT_FOUND(1034, "Voice call not found", HttpStatus.NOT_FOUND),
-    CHAT_PERMISSION_DENIED(1035, "You don't have permission to access this chat", HttpStatus.FORBIDDEN);
+    CHAT_PERMISSION_DENIED(1035, "You don't have permission to access this chat", HttpStatus.FORBIDDEN),
+    CHAT_AGENT_UNAVAILABLE(1038, "No customer care agent is available right now", HttpStatus.SERVICE_UNAVAILABLE),
+    CHAT_BACKLOG_FULL(1039, "Chat is busy, please resend your message", HttpStatus.SERVICE_UNAVAILABLE),
+    CHAT_MESSAGE_INVALID(1041, "Message must not be empty or longer than 64 KB", HttpStatus.BAD_REQUEST),
+
+    // Authentication related errors
+    LOGIN_RATE_LIMITED(1036, "Too many login attempts, please try again later", HttpStatus.TOO_MANY_REQUESTS),
+    AUTH_SERVICE_BUSY(1037, "Authentication is busy, please try again shortly", HttpStatus.SERVICE_UNAVAILABLE),
+
+    // Ticket related errors
+    QR_CODE_NOT_FOUND(1040, "QR code not found", HttpStatus.NOT_FOUND);
 
 
     ErrorCode(int code, String message, HttpStatusCode statusCode) {
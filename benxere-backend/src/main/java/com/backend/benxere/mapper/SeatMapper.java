@@ -10,7 +10,6 @@ import org.mapstruct.MappingTarget;
 @Mapper(componentModel = "spring", uses = {ScheduleMapper.class, UserMapper.class})
 public interface SeatMapper {
     @Mapping(source = "bookedBy", target = "user")
-    @Mapping(source = "qrCodeData", target = "qrCodeData")
     @Mapping(source = "qrCodeScannedCount", target = "qrCodeScannedCount")
     @Mapping(source = "lastQrScanTime", target = "lastQrScanTime")
     @Mapping(source = "booked" ,target = "isBooked")
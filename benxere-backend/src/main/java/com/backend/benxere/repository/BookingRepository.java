@@ -4,6 +4,7 @@ package com.backend.benxere.repository;
 import com.backend.benxere.entity.Booking;
 import com.backend.benxere.entity.User;
 import com.backend.benxere.entity.Schedule;
+import com.backend.benxere.repository.projection.PassengerManifestRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -52,6 +53,17 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
 
     List<Booking> findByScheduleAndStatus(Schedule schedule, Booking.BookingStatus status);
 
+    /** Every seat of the schedule's bookings in {@code status}, with passenger and stops, in one statement. */
+    @Query("SELECT new com.backend.benxere.repository.projection.PassengerManifestRow(" +
+           "b.bookingId, s.seatId, s.seatNumber, u.firstName, u.lastName, u.phoneNumber, " +
+           "pu.locationId, pu.name, d.locationId, d.name, s.checkInTime, s.checkOutTime, s.baggageCount) " +
+           "FROM Booking b JOIN b.seats s JOIN b.user u " +
+           "LEFT JOIN b.pickUpLocation pu LEFT JOIN b.dropOffLocation d " +
+           "WHERE b.schedule.scheduleId = :scheduleId AND b.status = :status " +
+           "ORDER BY s.seatNumber")
+    List<PassengerManifestRow> findPassengerManifest(@Param("scheduleId") int scheduleId,
+                                                     @Param("status") Booking.BookingStatus status);
+
     // tìm booking có chứa seatId trong danh sách seats theo status
     List<Booking> findBySeats_SeatIdAndStatus(Integer seatId, Booking.BookingStatus status);
 }
@@ -1,8 +1,8 @@
 package com.backend.benxere.repository;
 
 import com.backend.benxere.entity.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,32 +12,54 @@ import java.util.List;
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Integer> {
     
-    @Query("SELECT m FROM ChatMessage m WHERE " +
-           "(m.sender.userId = :senderId AND m.receiver.userId = :receiverId) OR " +
-           "(m.sender.userId = :receiverId AND m.receiver.userId = :senderId) " +
-           "ORDER BY m.sentAt ASC")
-    List<ChatMessage> findBySenderIdAndReceiverIdOrReceiverIdAndSenderId(
-            @Param("senderId") Integer senderId,
-            @Param("receiverId") Integer receiverId,
-            @Param("receiverId") Integer receiverId2,
-            @Param("senderId") Integer senderId2);
-    
-    @Query("SELECT m FROM ChatMessage m WHERE m.receiver.userId = :userId AND m.isRead = false ORDER BY m.sentAt ASC")
-    List<ChatMessage> findByReceiverUserIdAndIsReadFalse(@Param("userId") Integer userId);
-    
-    @Modifying
-    @Query("UPDATE ChatMessage m SET m.isRead = true WHERE m.sender.userId = :senderId AND m.receiver.userId = :receiverId AND m.isRead = false")
-    void markMessagesAsRead(@Param("senderId") Integer senderId, @Param("receiverId") Integer receiverId);
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender JOIN FETCH m.receiver " +
+           "WHERE m.conversationKey = :conversationKey ORDER BY m.sentAt ASC, m.id ASC")
+    List<ChatMessage> findConversation(@Param("conversationKey") long conversationKey);
 
-    @Query("SELECT DISTINCT m.sender.userId FROM ChatMessage m WHERE m.receiver.userId = :userId")
-    List<Integer> findDistinctSenders(@Param("userId") Integer userId);
+    /** Newest messages of a conversation, newest first. */
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender JOIN FETCH m.receiver " +
+           "WHERE m.conversationKey = :conversationKey ORDER BY m.sentAt DESC, m.id DESC")
+    List<ChatMessage> findLatestInConversation(@Param("conversationKey") long conversationKey, Pageable pageable);
 
-    @Query("SELECT DISTINCT m.receiver.userId FROM ChatMessage m WHERE m.sender.userId = :userId")
-    List<Integer> findDistinctReceivers(@Param("userId") Integer userId);
-
-    @Query("SELECT COUNT(m) FROM ChatMessage m WHERE m.receiver.userId = :receiverId AND m.sender.userId = :senderId AND m.isRead = false")
-    long countUnreadBySenderAndReceiver(@Param("senderId") Integer senderId, @Param("receiverId") Integer receiverId);
+    /**
+     * The page of messages right before {@code beforeId} in (sentAt, id) order, newest first. Seeks on
+     * {@code idx_chat_messages_conversation}, so every page costs the same however far back it is.
+     */
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender JOIN FETCH m.receiver, ChatMessage b " +
+           "WHERE b.id = :beforeId AND m.conversationKey = :conversationKey " +
+           "AND (m.sentAt < b.sentAt OR (m.sentAt = b.sentAt AND m.id < b.id)) " +
+           "ORDER BY m.sentAt DESC, m.id DESC")
+    List<ChatMessage> findInConversationBefore(@Param("conversationKey") long conversationKey,
+                                               @Param("beforeId") Integer beforeId,
+                                               Pageable pageable);
+    
+    /** Messages to {@code userId} after the user's read mark in their conversation, oldest first. */
+    @Query(value = "SELECT m.* FROM chat_messages m " +
+            "LEFT JOIN chat_read_marks r ON r.reader_id = :userId AND r.conversation_key = m.conversation_key " +
+            "WHERE m.receiver_id = :userId " +
+            "AND (r.reader_id IS NULL OR (m.sent_at, m.id) > (r.last_read_sent_at, r.last_read_message_id)) " +
+            "ORDER BY m.sent_at ASC, m.id ASC", nativeQuery = true)
+    List<ChatMessage> findUnreadByReceiver(@Param("userId") Integer userId);
 
-    @Query("SELECT m FROM ChatMessage m WHERE (m.sender.userId = :userId AND m.receiver.userId = :partnerId) OR (m.sender.userId = :partnerId AND m.receiver.userId = :userId) ORDER BY m.sentAt DESC")
-    List<ChatMessage> findMessageHistory(@Param("userId") Integer userId, @Param("partnerId") Integer partnerId, org.springframework.data.domain.Pageable pageable);
+    /**
+     * One row per conversation of {@code userId}, newest first: partner id, partner email, last message,
+     * its time and id, and how many of the partner's messages are after the user's read mark.
+     */
+    @Query(value = "SELECT c.partner_id, u.email, c.content, c.sent_at, c.id, c.unread_count FROM (" +
+            "  SELECT m.id, m.content, m.sent_at, " +
+            "         CASE WHEN m.sender_id = :userId THEN m.receiver_id ELSE m.sender_id END AS partner_id, " +
+            "         ROW_NUMBER() OVER (PARTITION BY m.conversation_key ORDER BY m.sent_at DESC, m.id DESC) AS rn, " +
+            "         SUM(CASE WHEN m.receiver_id = :userId AND (r.reader_id IS NULL " +
+            "                  OR (m.sent_at, m.id) > (r.last_read_sent_at, r.last_read_message_id)) THEN 1 ELSE 0 END) " +
+            "             OVER (PARTITION BY m.conversation_key) AS unread_count " +
+            "  FROM chat_messages m " +
+            "  LEFT JOIN chat_read_marks r ON r.reader_id = :userId AND r.conversation_key = m.conversation_key " +
+            "  WHERE (m.sender_id = :userId OR m.receiver_id = :userId) AND m.sender_id <> m.receiver_id" +
+            ") c JOIN users u ON u.user_id = c.partner_id " +
+            "WHERE c.rn = 1 " +
+            "ORDER BY c.sent_at DESC, c.id DESC " +
+            "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Object[]> findConversationSummaries(@Param("userId") Integer userId,
+                                             @Param("limit") int limit,
+                                             @Param("offset") int offset);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.backend.benxere.repository;
+
+import com.backend.benxere.entity.ScheduleLocation;
+
+import java.util.List;
+
+public interface CustomScheduleLocationRepository {
+    int insertAll(List<ScheduleLocation> scheduleLocations);
+}
@@ -0,0 +1,48 @@
+package com.backend.benxere.repository;
+
+import com.backend.benxere.entity.ScheduleLocation;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class CustomScheduleLocationRepositoryImpl implements CustomScheduleLocationRepository {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO schedules_locations (schedule_id, location_id, detail, created_at) VALUES ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Inserts all rows with one multi-row statement; IDENTITY ids rule out Hibernate's own insert batching.
+     * The statement is tied to {@link ScheduleLocation}'s table so Hibernate invalidates only that entity's
+     * cached data, instead of every second-level cache region, as it does for unqualified native updates.
+     */
+    @Override
+    public int insertAll(List<ScheduleLocation> scheduleLocations) {
+        if (scheduleLocations.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        for (int i = 0; i < scheduleLocations.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+
+        NativeQuery<?> query = entityManager.createNativeQuery(sql.toString())
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(ScheduleLocation.class);
+        int position = 1;
+        for (ScheduleLocation scheduleLocation : scheduleLocations) {
+            query.setParameter(position++, scheduleLocation.getSchedule().getScheduleId());
+            query.setParameter(position++, scheduleLocation.getLocation().getLocationId());
+            query.setParameter(position++, scheduleLocation.getDetail());
+            query.setParameter(position++, scheduleLocation.getCreatedAt());
+        }
+        return query.executeUpdate();
+    }
+}
@@ -3,7 +3,6 @@ package com.backend.benxere.repository;
 import com.backend.benxere.entity.Schedule;
 import com.backend.benxere.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -18,9 +17,4 @@ public interface DriverScheduleRepository extends JpaRepository<Schedule, Intege
     
     List<Schedule> findByDriverAndDepartureTimeBetween(
         User driver, LocalDateTime start, LocalDateTime end);
-    
-    @Query("SELECT s FROM Schedule s WHERE s.driver.userId = :userId AND " +
-           "((s.departureTime <= :now AND s.arrivalTime >= :now) OR " +
-           "(s.departureTime > :now AND s.departureTime <= :dayEnd))")
-    List<Schedule> findTodayAndUpcomingSchedules(int userId, LocalDateTime now, LocalDateTime dayEnd);
 }
\ No newline at end of file
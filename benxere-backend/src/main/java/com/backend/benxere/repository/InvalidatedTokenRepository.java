@@ -4,5 +4,12 @@ import com.backend.benxere.entity.InvalidatedToken;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
+import java.util.List;
+
 @Repository
-public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {}
+public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {
+    List<InvalidatedToken> findByExpiryTimeAfter(Date time);
+
+    List<InvalidatedToken> findByRevokedAtAfterAndExpiryTimeAfter(Date revokedAfter, Date expiresAfter);
+}
@@ -9,7 +9,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface ScheduleLocationRepository extends JpaRepository<ScheduleLocation, Long> {
+public interface ScheduleLocationRepository extends JpaRepository<ScheduleLocation, Long>, CustomScheduleLocationRepository {
     List<ScheduleLocation> findByScheduleScheduleId(int scheduleId);
     
     @Query("SELECT sl FROM ScheduleLocation sl WHERE sl.schedule.scheduleId = :scheduleId AND sl.detail = :detail")
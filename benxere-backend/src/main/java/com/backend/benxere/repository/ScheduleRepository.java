@@ -3,12 +3,15 @@ package com.backend.benxere.repository;
 import com.backend.benxere.entity.Schedule;
 import com.backend.benxere.entity.User;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.sql.Timestamp;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ScheduleRepository extends JpaRepository<Schedule, Integer> {
@@ -20,13 +23,33 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Integer> {
     List<Schedule> findAllByAssistant(User assistant);
     @Query("""
         select s from Schedule s
-        where s.assistant.userId = :assistantId
-          and s.departureTime between :now and :endOfDay
-        order by s.departureTime asc
+        join fetch s.route
+        left join fetch s.bus
+        where s.status = 'SCHEDULED'
+          and s.departureTime between :from and :to
     """)
-    List<Schedule> findTodayAndUpcomingSchedulesForAssistant(
-            @Param("assistantId") int assistantId,
-            @Param("now") java.time.LocalDateTime now,
-            @Param("endOfDay") java.time.LocalDateTime endOfDay
+    List<Schedule> findBookableSchedulesDepartingBetween(
+            @Param("from") java.time.LocalDateTime from,
+            @Param("to") java.time.LocalDateTime to
     );
-}
\ No newline at end of file
+    @Query("""
+        select s from Schedule s
+        left join fetch s.route
+        left join fetch s.bus
+        left join fetch s.driver
+        left join fetch s.secondDriver
+        left join fetch s.assistant
+        where s.status <> 'CANCELLED'
+          and s.departureTime < :to
+          and s.arrivalTime >= :from
+    """)
+    List<Schedule> findCrewSchedulesRunningBetween(
+            @Param("from") java.time.LocalDateTime from,
+            @Param("to") java.time.LocalDateTime to
+    );
+
+    /** The schedule row locked for the rest of the transaction, so work on one schedule runs one at a time. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Schedule s WHERE s.scheduleId = :scheduleId")
+    Optional<Schedule> findByIdForUpdate(@Param("scheduleId") int scheduleId);
+}
@@ -1,13 +1,33 @@
 package com.backend.benxere.repository;
 
 import com.backend.benxere.entity.Seat;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SeatRepository extends JpaRepository<Seat, Integer> {
     List<Seat> findAllByScheduleScheduleId(int scheduleId);
-  
-}
\ No newline at end of file
+
+    List<Seat> findAllByScheduleScheduleIdAndSeatIdIn(int scheduleId, Collection<Integer> seatIds);
+
+    @Query("SELECT s FROM Seat s LEFT JOIN FETCH s.bookedBy " +
+           "WHERE s.schedule.scheduleId = :scheduleId AND s.isBooked = true ORDER BY s.seatNumber")
+    List<Seat> findBookedWithPassengerByScheduleId(@Param("scheduleId") int scheduleId);
+
+    /**
+     * Booked seats after {@code afterSeatId} whose QR data is neither a ticket token nor a signed JSON
+     * string, i.e. still a base64 image; used to walk the table once in seat id order.
+     */
+    @Query("SELECT s FROM Seat s WHERE s.seatId > :afterSeatId AND s.isBooked = true " +
+           "AND s.qrCodeData IS NOT NULL AND LENGTH(s.qrCodeData) <> :tokenLength AND s.qrCodeData NOT LIKE '%|%' " +
+           "ORDER BY s.seatId")
+    List<Seat> findLegacyQRCodeSeatsAfter(@Param("afterSeatId") int afterSeatId,
+                                          @Param("tokenLength") int tokenLength,
+                                          Pageable pageable);
+}
@@ -3,6 +3,8 @@ package com.backend.benxere.repository;
 import com.backend.benxere.entity.User;
 import com.backend.benxere.entity.enums.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -20,4 +22,7 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     List<User> findAllByRoleOrderByCreatedAtDesc(Role role);
     
     boolean existsByEmailAndRole(String email, Role role);
+
+    @Query("SELECT u.manager.userId FROM User u WHERE u.userId = :userId")
+    Optional<Integer> findManagerIdByUserId(@Param("userId") int userId);
 }
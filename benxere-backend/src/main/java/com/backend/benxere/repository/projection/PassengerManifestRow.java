@@ -0,0 +1,42 @@
+package com.backend.benxere.repository.projection;
+
+import com.backend.benxere.dto.response.PassengerInfoResponse;
+
+import java.time.LocalDateTime;
+
+/**
+ * One booked seat of a schedule with its passenger and stops, read in a single statement by
+ * {@code BookingRepository.findPassengerManifest}.
+ */
+public record PassengerManifestRow(
+        int bookingId,
+        int seatId,
+        String seatNumber,
+        String firstName,
+        String lastName,
+        String phoneNumber,
+        Integer pickupLocationId,
+        String pickupLocationName,
+        Integer dropoffLocationId,
+        String dropoffLocationName,
+        LocalDateTime checkInTime,
+        LocalDateTime checkOutTime,
+        Integer baggageCount) {
+
+    public PassengerInfoResponse toPassengerInfo() {
+        return PassengerInfoResponse.builder()
+                .bookingId(bookingId)
+                .seatId(seatId)
+                .seatNumber(seatNumber)
+                .passengerName((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : ""))
+                .phoneNumber(phoneNumber)
+                .pickupLocationName(pickupLocationName)
+                .dropoffLocationName(dropoffLocationName)
+                .isBoarded(checkInTime != null)
+                .boardingTime(checkInTime)
+                .isDisembarked(checkOutTime != null)
+                .disembarkingTime(checkOutTime)
+                .luggageCount(baggageCount)
+                .build();
+    }
+}
@@ -4,15 +4,17 @@ import com.backend.benxere.dto.request.PassengerVerificationRequest;
 import com.backend.benxere.dto.response.DriverScheduleResponse;
 import com.backend.benxere.dto.response.LocationStopResponse;
 import com.backend.benxere.dto.response.PassengerInfoResponse;
+import com.backend.benxere.dto.response.PassengerStatusResultResponse;
 import com.backend.benxere.entity.*;
+import com.backend.benxere.exception.AppException;
+import com.backend.benxere.exception.ErrorCode;
 import com.backend.benxere.repository.*;
+import com.backend.benxere.repository.projection.PassengerManifestRow;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -51,18 +53,6 @@ public class AssistantService {
     }
 
 
-    public List<DriverScheduleResponse> getTodayAndUpcomingSchedules(int assistantId) {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime endOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.MAX);
-
-        List<Schedule> schedules = scheduleRepository
-                .findTodayAndUpcomingSchedulesForAssistant(assistantId, now, endOfDay);
-
-        return schedules.stream()
-                .map(this::convertToDriverScheduleResponse)
-                .collect(Collectors.toList());
-    }
-
     public DriverScheduleResponse getScheduleDetails(int scheduleId, int assistantId) {
         Schedule schedule = scheduleRepository.findById(scheduleId)
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
@@ -91,34 +81,87 @@ public class AssistantService {
             throw new RuntimeException("Seat is not booked");
         }
 
+        applyVerification(seat, request, assistant.getUserId(), LocalDateTime.now());
+
+        seatRepository.save(seat);
+        return convertToPassengerInfoResponse(seat);
+    }
+
+    /**
+     * Boards or disembarks several passengers of one schedule at once. The assignment is checked once,
+     * the seats are loaded with one query and the changes leave as batched updates when the transaction
+     * flushes. A seat that cannot be updated is reported in its result and does not fail the others.
+     */
+    @Transactional
+    public List<PassengerStatusResultResponse> updatePassengerStatuses(int assistantId, int scheduleId,
+                                                                      List<PassengerVerificationRequest> requests) {
+        Schedule schedule = scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new AppException(ErrorCode.SCHEDULE_NOT_FOUND));
+        if (schedule.getAssistant() == null || schedule.getAssistant().getUserId() != assistantId) {
+            throw new AppException(ErrorCode.ACCESS_DENIED, "Assistant is not assigned to this schedule");
+        }
+
+        Set<Integer> seatIds = requests.stream()
+                .map(PassengerVerificationRequest::getSeatId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, Seat> seats = seatRepository.findAllByScheduleScheduleIdAndSeatIdIn(scheduleId, seatIds).stream()
+                .collect(Collectors.toMap(Seat::getSeatId, seat -> seat));
+
         LocalDateTime now = LocalDateTime.now();
+        List<PassengerStatusResultResponse> results = new ArrayList<>(requests.size());
+        for (PassengerVerificationRequest request : requests) {
+            Seat seat = seats.get(request.getSeatId());
+            if (seat == null) {
+                results.add(failedStatus(request, "Seat is not part of this schedule"));
+            } else if (!seat.isBooked()) {
+                results.add(failedStatus(request, "Seat is not booked"));
+            } else {
+                applyVerification(seat, request, assistantId, now);
+                results.add(PassengerStatusResultResponse.builder()
+                        .seatId(seat.getSeatId())
+                        .success(true)
+                        .passengerStatus(seat.getPassengerStatus())
+                        .boardingTime(seat.getCheckInTime())
+                        .disembarkingTime(seat.getCheckOutTime())
+                        .luggageCount(seat.getBaggageCount())
+                        .build());
+            }
+        }
+        return results;
+    }
+
+    private static PassengerStatusResultResponse failedStatus(PassengerVerificationRequest request, String message) {
+        return PassengerStatusResultResponse.builder()
+                .seatId(request.getSeatId())
+                .success(false)
+                .message(message)
+                .build();
+    }
 
+    private static void applyVerification(Seat seat, PassengerVerificationRequest request, int assistantId, LocalDateTime now) {
         if (Boolean.TRUE.equals(request.getIsBoarded())) {
             seat.setCheckInTime(now);
             seat.setPassengerStatus("BOARDED");
-            if (request.getLuggageCount() != null) seat.setBaggageCount(request.getLuggageCount());
             // Có thể log verificationMethod vào ghi chú nếu muốn:
             if (request.getVerificationMethod() != null) {
                 String note = seat.getDriverNotes() == null ? "" : seat.getDriverNotes() + " | ";
                 seat.setDriverNotes(note + "Verification: " + request.getVerificationMethod());
             }
-            seat.setLastUpdatedBy(assistant.getUserId());
+            seat.setLastUpdatedBy(assistantId);
             seat.setLastUpdatedAt(now);
         }
 
         if (Boolean.TRUE.equals(request.getIsDisembarked())) {
             seat.setCheckOutTime(now);
             seat.setPassengerStatus("DISEMBARKED");
-            seat.setLastUpdatedBy(assistant.getUserId());
+            seat.setLastUpdatedBy(assistantId);
             seat.setLastUpdatedAt(now);
         }
 
         if (request.getLuggageCount() != null) {
             seat.setBaggageCount(request.getLuggageCount());
         }
-
-        seatRepository.save(seat);
-        return convertToPassengerInfoResponse(seat);
     }
 
 
@@ -131,16 +174,9 @@ public class AssistantService {
             throw new RuntimeException("Assistant is not assigned to this schedule");
         }
 
-        List<Booking> bookings = bookingRepository.findByScheduleAndStatus(
-                schedule, Booking.BookingStatus.Confirmed);
-
-        List<PassengerInfoResponse> passengers = new ArrayList<>();
-        for (Booking booking : bookings) {
-            for (Seat seat : booking.getSeats()) {
-                passengers.add(convertToPassengerInfoResponse(seat));
-            }
-        }
-        return passengers;
+        return bookingRepository.findPassengerManifest(scheduleId, Booking.BookingStatus.Confirmed).stream()
+                .map(PassengerManifestRow::toPassengerInfo)
+                .collect(Collectors.toList());
     }
 
 
@@ -174,59 +210,43 @@ public class AssistantService {
     private DriverScheduleResponse convertToDriverScheduleResponseWithPassengers(Schedule schedule) {
         DriverScheduleResponse response = convertToDriverScheduleResponse(schedule);
 
-        List<Booking> bookings = bookingRepository.findByScheduleAndStatus(
-                schedule, Booking.BookingStatus.Confirmed);
-
-        List<PassengerInfoResponse> passengers = new ArrayList<>();
-        for (Booking booking : bookings) {
-            for (Seat seat : booking.getSeats()) {
-                passengers.add(convertToPassengerInfoResponse(seat));
+        List<PassengerManifestRow> manifest = bookingRepository.findPassengerManifest(
+                schedule.getScheduleId(), Booking.BookingStatus.Confirmed);
+        response.setPassengers(manifest.stream()
+                .map(PassengerManifestRow::toPassengerInfo)
+                .collect(Collectors.toList()));
+
+        Map<Integer, LocationStopResponse> pickups = new LinkedHashMap<>();
+        Map<Integer, LocationStopResponse> dropoffs = new LinkedHashMap<>();
+        for (PassengerManifestRow row : manifest) {
+            if (row.pickupLocationId() != null) {
+                countStop(pickups, row.pickupLocationId(), row.pickupLocationName(), true);
+            }
+            if (row.dropoffLocationId() != null) {
+                countStop(dropoffs, row.dropoffLocationId(), row.dropoffLocationName(), false);
             }
-        }
-        response.setPassengers(passengers);
-
-        Map<Location, Integer> pickupCountMap = new HashMap<>();
-        Map<Location, Integer> dropoffCountMap = new HashMap<>();
-        for (Booking booking : bookings) {
-            Location pickup = booking.getPickUpLocation();
-            Location dropoff = booking.getDropOffLocation();
-            int count = booking.getSeats() != null ? booking.getSeats().size() : 0;
-            if (pickup != null) pickupCountMap.put(pickup, pickupCountMap.getOrDefault(pickup, 0) + count);
-            if (dropoff != null) dropoffCountMap.put(dropoff, dropoffCountMap.getOrDefault(dropoff, 0) + count);
-        }
-
-        List<LocationStopResponse> stops = new ArrayList<>();
-        for (Map.Entry<Location, Integer> e : pickupCountMap.entrySet()) {
-            Location l = e.getKey();
-            stops.add(LocationStopResponse.builder()
-                    .locationId(l.getLocationId())
-                    .locationName(l.getName())
-                    .address(null)     // Location chưa có field này
-                    .latitude(0.0)     // Location chưa có field này
-                    .longitude(0.0)    // Location chưa có field này
-                    .isPickup(true)
-                    .isDropoff(false)
-                    .passengerCount(e.getValue())
-                    .build());
-        }
-        for (Map.Entry<Location, Integer> e : dropoffCountMap.entrySet()) {
-            Location l = e.getKey();
-            stops.add(LocationStopResponse.builder()
-                    .locationId(l.getLocationId())
-                    .locationName(l.getName())
-                    .address(null)
-                    .latitude(0.0)
-                    .longitude(0.0)
-                    .isPickup(false)
-                    .isDropoff(true)
-                    .passengerCount(e.getValue())
-                    .build());
         }
 
+        List<LocationStopResponse> stops = new ArrayList<>(pickups.values());
+        stops.addAll(dropoffs.values());
         response.setStops(stops);
         return response;
     }
 
+    private static void countStop(Map<Integer, LocationStopResponse> stops, int locationId, String name, boolean pickup) {
+        LocationStopResponse stop = stops.computeIfAbsent(locationId, id -> LocationStopResponse.builder()
+                .locationId(id)
+                .locationName(name)
+                .address(null)     // Location chưa có field này
+                .latitude(0.0)     // Location chưa có field này
+                .longitude(0.0)    // Location chưa có field này
+                .isPickup(pickup)
+                .isDropoff(!pickup)
+                .passengerCount(0)
+                .build());
+        stop.setPassengerCount(stop.getPassengerCount() + 1);
+    }
+
 
 
     private PassengerInfoResponse convertToPassengerInfoResponse(Seat seat) {
@@ -12,22 +12,23 @@ import com.backend.benxere.constant.PredefinedRole;
 import com.backend.benxere.dto.request.*;
 import com.backend.benxere.dto.response.AuthenticationResponse;
 import com.backend.benxere.dto.response.IntrospectResponse;
-import com.backend.benxere.entity.InvalidatedToken;
 import com.backend.benxere.entity.Role;
 import com.backend.benxere.entity.User;
 import com.backend.benxere.exception.AppException;
 import com.backend.benxere.repository.RoleRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.backend.benxere.exception.ErrorCode;
-import com.backend.benxere.repository.InvalidatedTokenRepository;
 import com.backend.benxere.repository.UserRepository;
+import com.backend.benxere.service.login.LoginThrottle;
+import com.backend.benxere.service.login.PasswordVerifier;
+import com.backend.benxere.service.token.JwtTokenVerifier;
+import com.backend.benxere.service.token.RevokedTokenRegistry;
+import com.backend.benxere.service.token.VerifiedTokenCache;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.MACSigner;
-import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 
@@ -44,8 +45,13 @@ import lombok.extern.slf4j.Slf4j;
 public class AuthenticationService {
     UserRepository userRepository;
     RoleRepository roleRepository;
-    InvalidatedTokenRepository invalidatedTokenRepository;
+    RevokedTokenRegistry revokedTokenRegistry;
+    JwtTokenVerifier jwtTokenVerifier;
+    VerifiedTokenCache verifiedTokenCache;
     UserService userService;
+    PasswordEncoder passwordEncoder;
+    PasswordVerifier passwordVerifier;
+    LoginThrottle loginThrottle;
 
     @NonFinal
     @Value("${jwt.signerKey}")
@@ -81,12 +87,17 @@ public class AuthenticationService {
     }
 
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
-        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(10);
+        return authenticate(request, null);
+    }
+
+    public AuthenticationResponse authenticate(AuthenticationRequest request, String clientIp) {
+        loginThrottle.acquire(request.getEmail(), clientIp);
+
         var user = userRepository
                 .findByEmail(request.getEmail())
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
 
-        boolean authenticated = passwordEncoder.matches(request.getPassword(), user.getPasswordHash());
+        boolean authenticated = passwordVerifier.matches(request.getPassword(), user.getPasswordHash());
 
         if (!authenticated) throw new AppException(ErrorCode.UNAUTHENTICATED);
 
@@ -102,10 +113,8 @@ public class AuthenticationService {
             String jit = signToken.getJWTClaimsSet().getJWTID();
             Date expiryTime = signToken.getJWTClaimsSet().getExpirationTime();
 
-            InvalidatedToken invalidatedToken =
-                    InvalidatedToken.builder().id(jit).expiryTime(expiryTime).build();
-
-            invalidatedTokenRepository.save(invalidatedToken);
+            revokedTokenRegistry.revoke(jit, expiryTime);
+            verifiedTokenCache.invalidate(request.getToken());
         } catch (AppException exception) {
             log.info("Token already expired");
         }
@@ -117,10 +126,8 @@ public class AuthenticationService {
         var jit = signedJWT.getJWTClaimsSet().getJWTID();
         var expiryTime = signedJWT.getJWTClaimsSet().getExpirationTime();
 
-        InvalidatedToken invalidatedToken =
-                InvalidatedToken.builder().id(jit).expiryTime(expiryTime).build();
-
-        invalidatedTokenRepository.save(invalidatedToken);
+        revokedTokenRegistry.revoke(jit, expiryTime);
+        verifiedTokenCache.invalidate(request.getToken());
 
         var username = signedJWT.getJWTClaimsSet().getSubject();
         
@@ -144,7 +151,7 @@ public class AuthenticationService {
 
         long tokenDuration = rememberMe ? REMEMBER_ME_DURATION : VALID_DURATION;
 
-        JWTClaimsSet jwtClaimsSet = new JWTClaimsSet.Builder()
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
                 .subject(user.getEmail())
                 .issuer("benxeso.com")
                 .issueTime(new Date())
@@ -153,7 +160,11 @@ public class AuthenticationService {
                 .jwtID(UUID.randomUUID().toString())
                 .claim("scope", buildScope(user))
                 .claim("rememberMe", rememberMe)
-                .build();
+                .claim("userId", user.getUserId());
+        if (user.getRole() != null) {
+            claims.claim("role", user.getRole().getName());
+        }
+        JWTClaimsSet jwtClaimsSet = claims.build();
 
         Payload payload = new Payload(jwtClaimsSet.toJSONObject());
 
@@ -169,9 +180,7 @@ public class AuthenticationService {
     }
 
     private SignedJWT verifyToken(String token, boolean isRefresh) throws JOSEException, ParseException {
-        JWSVerifier verifier = new MACVerifier(SIGNER_KEY.getBytes());
-
-        SignedJWT signedJWT = SignedJWT.parse(token);
+        SignedJWT signedJWT = jwtTokenVerifier.verifySignature(token);
         
         boolean isRememberMe = signedJWT.getJWTClaimsSet().getClaim("rememberMe") != null && 
                               (boolean) signedJWT.getJWTClaimsSet().getClaim("rememberMe");
@@ -187,12 +196,9 @@ public class AuthenticationService {
                         .toEpochMilli())
                 : signedJWT.getJWTClaimsSet().getExpirationTime();
 
-        var verified = signedJWT.verify(verifier);
+        if (!expiryTime.after(new Date())) throw new AppException(ErrorCode.UNAUTHENTICATED);
 
-        if (!(verified && expiryTime.after(new Date()))) throw new AppException(ErrorCode.UNAUTHENTICATED);
-
-        if (invalidatedTokenRepository.existsById(signedJWT.getJWTClaimsSet().getJWTID()))
-            throw new AppException(ErrorCode.UNAUTHENTICATED);
+        if (jwtTokenVerifier.isRevoked(signedJWT)) throw new AppException(ErrorCode.UNAUTHENTICATED);
 
         return signedJWT;
     }
@@ -207,8 +213,6 @@ public class AuthenticationService {
         return stringJoiner.toString();
     }
     public AuthenticationResponse signUp(SignUpRequest request) {
-        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(10);
-    
         Role defaultRole = roleRepository.findByName(PredefinedRole.CUSTOMER_ROLE)
             .orElseThrow(() -> new AppException(ErrorCode.ROLE_NOT_FOUND));
     
@@ -234,7 +238,11 @@ public class AuthenticationService {
     public String getUserIdFromToken(String token) {
         try {
             SignedJWT signedJWT = verifyToken(token.replace("Bearer ", ""), false);
-            return signedJWT.getJWTClaimsSet().getStringClaim("userId");
+            Object userId = signedJWT.getJWTClaimsSet().getClaim("userId");
+            if (userId == null) {
+                throw new AppException(ErrorCode.UNAUTHENTICATED);
+            }
+            return userId.toString();
         } catch (ParseException | JOSEException e) {
             throw new AppException(ErrorCode.UNAUTHENTICATED);
         }
@@ -10,10 +10,8 @@ import com.backend.benxere.exception.ErrorCode;
 import com.backend.benxere.mapper.BusMapper;
 import com.backend.benxere.repository.BusImageRepository;
 import com.backend.benxere.repository.BusRepository;
-import com.backend.benxere.repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,19 +24,19 @@ import java.util.stream.Collectors;
 public class BusService {
     private final BusRepository busRepository;
     private final BusImageRepository busImageRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserContext currentUserContext;
     private final BusMapper busMapper;
     private final FileStorageService fileStorageService;
 
     @Autowired
     public BusService(BusRepository busRepository,
                       BusImageRepository busImageRepository,
-                      UserRepository userRepository,
+                      CurrentUserContext currentUserContext,
                       BusMapper busMapper,
                       FileStorageService fileStorageService) {
         this.busRepository = busRepository;
         this.busImageRepository = busImageRepository;
-        this.userRepository = userRepository;
+        this.currentUserContext = currentUserContext;
         this.busMapper = busMapper;
         this.fileStorageService = fileStorageService;
     }
@@ -49,9 +47,7 @@ public class BusService {
             throw new AppException(ErrorCode.IMAGE_NOT_FOUND);
         }
 
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User owner = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        User owner = currentUserContext.getUser();
 
         Bus bus = busMapper.toBus(request);
         bus.setOwner(owner);
@@ -97,9 +93,7 @@ public class BusService {
         Bus bus = busRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.BUS_NOT_FOUND));
 
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User owner = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        User owner = currentUserContext.getUser();
 
         bus.setBusNumber(request.getBusNumber());
         bus.setBusType(request.getBusType());
@@ -131,10 +125,7 @@ public class BusService {
     }
 
     public List<BusResponse> getBusByCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User owner = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-        Integer ownerId = owner.getUserId();
+        Integer ownerId = currentUserContext.getUserId();
         return busRepository.findByOwnerUserId(ownerId).stream()
                 .map(busMapper::toBusResponse)
                 .collect(Collectors.toList());
@@ -8,9 +8,13 @@ import java.util.List;
 public interface ChatService {
 
     void sendMessage(ChatMessageRequest chatMessage, Integer senderId);
+    void sendMessage(ChatMessageRequest chatMessage, Integer senderId, String senderEmail);
     List<ChatMessageResponse> getChatHistory(Integer currentUserId, Integer otherUserId);
     List<ChatMessageResponse> getUnreadMessages(Integer userId);
-    void markMessagesAsRead(Integer senderId, Integer receiverId);
-    List<com.backend.benxere.dto.response.ConversationSummaryResponse> getConversations(Integer userId);
+    void markMessagesAsRead(Integer senderId, Integer receiverId, Integer lastReadMessageId);
+    com.backend.benxere.dto.response.UnreadCountResponse getUnreadCount(Integer userId);
+    List<com.backend.benxere.dto.response.ConversationSummaryResponse> getConversations(Integer userId, int page, int size);
     List<com.backend.benxere.dto.response.ChatMessageResponse> getChatHistory(Integer userId, Integer partnerId, int page, int size);
+    List<ChatMessageResponse> getChatHistoryBefore(Integer userId, Integer partnerId, Integer beforeId, int size);
+    com.backend.benxere.dto.response.ChatAgentResponse assignCustomerCareAgent(Integer busOwnerId);
 }
\ No newline at end of file
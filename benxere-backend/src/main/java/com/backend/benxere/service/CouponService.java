@@ -8,10 +8,8 @@ import com.backend.benxere.exception.AppException;
 import com.backend.benxere.exception.ErrorCode;
 import com.backend.benxere.mapper.CouponMapper;
 import com.backend.benxere.repository.CouponRepository;
-import com.backend.benxere.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -25,22 +23,20 @@ import java.util.stream.Collectors;
 public class CouponService {
 
     private final CouponRepository couponRepository;
-    private final UserRepository userRepository;
     private final CouponMapper couponMapper;
+    private final CurrentUserContext currentUserContext;
 
     @Autowired
     public CouponService(CouponRepository couponRepository,
-                         UserRepository userRepository,
-                         @Qualifier("couponMapperImpl") CouponMapper couponMapper) {
+                         @Qualifier("couponMapperImpl") CouponMapper couponMapper,
+                         CurrentUserContext currentUserContext) {
         this.couponRepository = couponRepository;
-        this.userRepository = userRepository;
         this.couponMapper = couponMapper;
+        this.currentUserContext = currentUserContext;
     }
 
     public CouponResponse createCoupon(CouponCreationRequest request) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User creator = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        User creator = currentUserContext.getUser();
 
         Coupon coupon = couponMapper.toCoupon(request);
         coupon.setCreatedBy(creator);
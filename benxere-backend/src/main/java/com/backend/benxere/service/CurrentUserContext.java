@@ -0,0 +1,122 @@
+package com.backend.benxere.service;
+
+import com.backend.benxere.entity.User;
+import com.backend.benxere.exception.AppException;
+import com.backend.benxere.exception.ErrorCode;
+import com.backend.benxere.repository.UserRepository;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Who is calling, resolved at most once per HTTP request. Id and role come straight from the access
+ * token's claims. The employer is looked up, because staff can be moved to another bus owner while their
+ * token is still valid. The {@link User} entity is only loaded when a caller needs it and is then
+ * shared by every service in the same request. Outside a request (STOMP handlers, schedulers) nothing
+ * is memoized and each call resolves afresh.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserContext {
+    private static final String CURRENT_USER_ATTRIBUTE = CurrentUserContext.class.getName() + ".currentUser";
+    private static final String USER_ENTITY_ATTRIBUTE = CurrentUserContext.class.getName() + ".userEntity";
+    private static final String EMPLOYER_ID_ATTRIBUTE = CurrentUserContext.class.getName() + ".employerId";
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final UserRepository userRepository;
+
+    public CurrentUser get() {
+        return memoize(CURRENT_USER_ATTRIBUTE, this::resolveCurrentUser);
+    }
+
+    public User getUser() {
+        return memoize(USER_ENTITY_ATTRIBUTE, () -> userRepository.findByEmail(getEmail())
+                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED)));
+    }
+
+    public int getUserId() {
+        return get().getUserId();
+    }
+
+    /** The bus owner the caller currently works for, read from the database on every request. */
+    public Integer getEmployerId() {
+        Optional<Integer> employerId = memoize(EMPLOYER_ID_ATTRIBUTE,
+                () -> userRepository.findManagerIdByUserId(getUserId()));
+        return employerId.orElse(null);
+    }
+
+    public String getEmail() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
+        }
+        return authentication.getName();
+    }
+
+    private CurrentUser resolveCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken jwtAuthentication) {
+            Jwt jwt = jwtAuthentication.getToken();
+            Object userId = jwt.getClaim("userId");
+            if (userId instanceof Number id) {
+                return CurrentUser.builder()
+                        .userId(id.intValue())
+                        .email(jwt.getSubject())
+                        .role(roleFromScope(jwt.getClaimAsString("scope")))
+                        .build();
+            }
+        }
+
+        // Tokens issued before the userId claim existed: fall back to one lookup.
+        User user = getUser();
+        return CurrentUser.builder()
+                .userId(user.getUserId())
+                .email(user.getEmail())
+                .role(user.getRole() != null ? user.getRole().getName() : null)
+                .build();
+    }
+
+    private static String roleFromScope(String scope) {
+        if (scope == null) {
+            return null;
+        }
+        for (String authority : scope.split(" ")) {
+            if (authority.startsWith(ROLE_PREFIX)) {
+                return authority.substring(ROLE_PREFIX.length());
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T memoize(String attribute, Supplier<T> resolver) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return resolver.get();
+        }
+        Object cached = requestAttributes.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST);
+        if (cached == null) {
+            cached = resolver.get();
+            requestAttributes.setAttribute(attribute, cached, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (T) cached;
+    }
+
+    @Getter
+    @Builder
+    public static class CurrentUser {
+        private final int userId;
+        private final String email;
+        private final String role;
+    }
+}
@@ -1,7 +1,6 @@
 package com.backend.benxere.service;
 
 import java.util.List;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,17 +32,14 @@ public class CustomerCareService {
     private final BookingService bookingService;
     private final SeatService seatService;
     private final BookingRepository bookingRepository;
-    private final SeatRepository seatRepository;    public List<ScheduleResponse> getBusOwnerSchedules() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User customerCare = userRepository.findByEmail(email)
-            .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED, "User not found"));
-        
-        User busOwner = customerCare.getManager();
-        if (busOwner == null) {
+    private final SeatRepository seatRepository;
+    private final CurrentUserContext currentUserContext;    public List<ScheduleResponse> getBusOwnerSchedules() {
+        Integer busOwnerId = currentUserContext.getEmployerId();
+        if (busOwnerId == null) {
             throw new AppException(ErrorCode.ACCESS_DENIED, "Customer care staff must be assigned to a bus owner");
         }
         
-        return scheduleService.getSchedulesByBusOwner(busOwner.getUserId());
+        return scheduleService.getSchedulesByBusOwner(busOwnerId);
     }
 
     @Transactional
@@ -138,12 +134,8 @@ public class CustomerCareService {
     }
 
     private void validateCustomerCareAccess(Schedule schedule) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User customerCare = userRepository.findByEmail(email)
-            .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED, "User not found"));
-        
-        User busOwner = customerCare.getManager();
-        if (busOwner == null || schedule.getBus().getOwner().getUserId() != busOwner.getUserId()) {
+        Integer busOwnerId = currentUserContext.getEmployerId();
+        if (busOwnerId == null || schedule.getBus().getOwner().getUserId() != busOwnerId) {
             throw new AppException(ErrorCode.ACCESS_DENIED, "You don't have access to this schedule");
         }
     }
@@ -6,6 +6,7 @@ import com.backend.benxere.dto.response.PickupDropoffLocationResponse;
 import com.backend.benxere.entity.Location;
 import com.backend.benxere.mapper.LocationMapper;
 import com.backend.benxere.repository.LocationRepository;
+import com.backend.benxere.service.search.LocationSearchIndex;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
@@ -19,14 +20,19 @@ import java.util.stream.Collectors;
 
 @Service
 public class LocationService {
+    private static final int MAX_RECOMMENDATION_LIMIT = 50;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final LocationRepository locationRepository;
     private final LocationMapper locationMapper = new LocationMapper();
     private final ScheduleService scheduleService;
+    private final LocationSearchIndex locationSearchIndex;
 
-    public LocationService(LocationRepository locationRepository, ScheduleService scheduleService) {
+    public LocationService(LocationRepository locationRepository, ScheduleService scheduleService,
+                           LocationSearchIndex locationSearchIndex) {
         this.locationRepository = locationRepository;
         this.scheduleService = scheduleService;
+        this.locationSearchIndex = locationSearchIndex;
     }
 
     public List<LocationResponse> getDistricts() throws IOException {
@@ -87,6 +93,7 @@ public class LocationService {
         Location location = locationMapper.toEntity(request);
         location.setCreatedAt(Timestamp.from(java.time.Instant.now()));
         location = locationRepository.save(location);
+        locationSearchIndex.put(location);
         return locationMapper.toResponse(location);
     }
 
@@ -95,6 +102,7 @@ public class LocationService {
                 .map(existingLocation -> {
                     existingLocation.setName(request.getName());
                     Location updatedLocation = locationRepository.save(existingLocation);
+                    locationSearchIndex.put(updatedLocation);
                     return locationMapper.toResponse(updatedLocation);
                 })
                 .orElse(null);
@@ -102,11 +110,12 @@ public class LocationService {
 
     public void deleteLocation(int id) {
         locationRepository.deleteById(id);
+        locationSearchIndex.remove(id);
     }
-    public List<PickupDropoffLocationResponse> getLocationRecommendations(String query) {
-        List<Location> locations = locationRepository.findByQuery(query);
-        return locations.stream()
-                .map(location -> new PickupDropoffLocationResponse(location.getLocationId(), location.getName()))
+    public List<PickupDropoffLocationResponse> getLocationRecommendations(String query, int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_RECOMMENDATION_LIMIT));
+        return locationSearchIndex.search(query, boundedLimit).stream()
+                .map(hit -> new PickupDropoffLocationResponse(hit.locationId(), hit.name()))
                 .collect(Collectors.toList());
     }
     public List<PickupDropoffLocationResponse> getPickUpSchedules(int id) {
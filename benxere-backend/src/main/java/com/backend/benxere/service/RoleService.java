@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import com.backend.benxere.dto.request.RoleRequest;
 import com.backend.benxere.repository.PermissionRepository;
 import com.backend.benxere.repository.RoleRepository;
+import com.backend.benxere.service.token.RoleAuthorityTable;
 
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +24,7 @@ public class RoleService {
     RoleRepository roleRepository;
     PermissionRepository permissionRepository;
     RoleMapper roleMapper;
+    RoleAuthorityTable roleAuthorityTable;
 
     public RoleResponse create(RoleRequest request) {
         var role = roleMapper.toRole(request);
@@ -30,6 +32,7 @@ public class RoleService {
         var permissions = permissionRepository.findAllById(request.getPermissions());
 
         role = roleRepository.save(role);
+        roleAuthorityTable.refresh();
         return roleMapper.toRoleResponse(role);
     }
 
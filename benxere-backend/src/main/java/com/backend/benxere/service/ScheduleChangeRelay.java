@@ -0,0 +1,42 @@
+package com.backend.benxere.service;
+
+import com.backend.benxere.service.cluster.ClusterBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Forwards committed schedule changes to the other instances over the {@link ClusterBus} and publishes
+ * the ones they send as local {@link ScheduleChangedEvent}s, so every instance's route graph and crew
+ * roster reload the schedule. Only the id travels; each instance reads the committed row itself.
+ */
+@Component
+@Slf4j
+public class ScheduleChangeRelay {
+    private static final String CLUSTER_CHANNEL = "schedule-changed";
+
+    private final ClusterBus clusterBus;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ScheduleChangeRelay(ClusterBus clusterBus, ApplicationEventPublisher eventPublisher) {
+        this.clusterBus = clusterBus;
+        this.eventPublisher = eventPublisher;
+        clusterBus.subscribe(CLUSTER_CHANNEL, this::onPeerChange);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (!event.fromPeer() && clusterBus.isDistributed()) {
+            clusterBus.publish(CLUSTER_CHANNEL, Integer.toString(event.scheduleId()));
+        }
+    }
+
+    private void onPeerChange(String body) {
+        try {
+            eventPublisher.publishEvent(new ScheduleChangedEvent(Integer.parseInt(body.trim()), true));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring unreadable schedule change from another instance: {}", body);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.backend.benxere.service;
+
+/**
+ * Published whenever a schedule is created, edited, changes status or is deleted. In-memory views of
+ * schedules listen for it after the surrounding transaction commits and reload the schedule by id, so
+ * a rolled-back edit never reaches them. {@link ScheduleChangeRelay} repeats it on the other instances
+ * with {@code fromPeer} set, and never forwards those.
+ */
+public record ScheduleChangedEvent(int scheduleId, boolean fromPeer) {
+
+    public ScheduleChangedEvent(int scheduleId) {
+        this(scheduleId, false);
+    }
+}
@@ -9,10 +9,8 @@ import com.backend.benxere.exception.AppException;
 import com.backend.benxere.exception.ErrorCode;
 import com.backend.benxere.repository.ScheduleIssueRepository;
 import com.backend.benxere.repository.ScheduleRepository;
-import com.backend.benxere.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,13 +24,11 @@ import java.util.stream.Collectors;
 public class ScheduleIssueService {
     private final ScheduleIssueRepository scheduleIssueRepository;
     private final ScheduleRepository scheduleRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserContext currentUserContext;
 
     @Transactional
     public ScheduleIssueResponse reportIssue(int scheduleId, ScheduleIssueRequest request) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        User currentUser = currentUserContext.getUser();
 
         Schedule schedule = scheduleRepository.findById(scheduleId)
                 .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Schedule not found"));
@@ -64,16 +60,14 @@ public class ScheduleIssueService {
 
     @Transactional
     public ScheduleIssueResponse updateIssueStatus(int issueId, String status) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        int currentUserId = currentUserContext.getUserId();
 
         ScheduleIssue issue = scheduleIssueRepository.findById(issueId)
                 .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Issue not found"));
 
         Schedule schedule = issue.getSchedule();
-        if ((schedule.getDriver() == null || schedule.getDriver().getUserId() != currentUser.getUserId()) &&
-            (schedule.getAssistant() == null || schedule.getAssistant().getUserId() != currentUser.getUserId())) {
+        if ((schedule.getDriver() == null || schedule.getDriver().getUserId() != currentUserId) &&
+            (schedule.getAssistant() == null || schedule.getAssistant().getUserId() != currentUserId)) {
             throw new AppException(ErrorCode.ACCESS_DENIED, "Only the driver or assistant of this schedule can update issue status");
         }
 
@@ -92,16 +86,14 @@ public class ScheduleIssueService {
 
     @Transactional
     public ScheduleIssueResponse addResolutionNotes(int issueId, String notes) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        int currentUserId = currentUserContext.getUserId();
 
         ScheduleIssue issue = scheduleIssueRepository.findById(issueId)
                 .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Issue not found"));
 
         Schedule schedule = issue.getSchedule();
-        if ((schedule.getDriver() == null || schedule.getDriver().getUserId() != currentUser.getUserId()) &&
-            (schedule.getAssistant() == null || schedule.getAssistant().getUserId() != currentUser.getUserId())) {
+        if ((schedule.getDriver() == null || schedule.getDriver().getUserId() != currentUserId) &&
+            (schedule.getAssistant() == null || schedule.getAssistant().getUserId() != currentUserId)) {
             throw new AppException(ErrorCode.ACCESS_DENIED, "Only the driver or assistant of this schedule can add resolution notes");
         }
 
@@ -113,14 +105,12 @@ public class ScheduleIssueService {
     }
 
     public List<ScheduleIssueResponse> getIssuesBySchedule(int scheduleId) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        int currentUserId = currentUserContext.getUserId();
 
         Schedule schedule = scheduleRepository.findById(scheduleId)
                 .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Schedule not found"));
-        if ((schedule.getDriver() == null || schedule.getDriver().getUserId() != currentUser.getUserId()) &&
-            (schedule.getAssistant() == null || schedule.getAssistant().getUserId() != currentUser.getUserId())) {
+        if ((schedule.getDriver() == null || schedule.getDriver().getUserId() != currentUserId) &&
+            (schedule.getAssistant() == null || schedule.getAssistant().getUserId() != currentUserId)) {
             throw new AppException(ErrorCode.ACCESS_DENIED, "Only the driver or assistant of this schedule can view its issues");
         }
 
@@ -2,14 +2,12 @@ package com.backend.benxere.service;
 
 import com.backend.benxere.dto.request.ScheduleStatusRequest;
 import com.backend.benxere.entity.Schedule;
-import com.backend.benxere.entity.User;
 import com.backend.benxere.exception.AppException;
 import com.backend.benxere.exception.ErrorCode;
 import com.backend.benxere.repository.ScheduleRepository;
-import com.backend.benxere.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,21 +20,20 @@ import java.util.List;
 @Slf4j
 public class ScheduleStatusService {
     private final ScheduleRepository scheduleRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserContext currentUserContext;
+    private final ApplicationEventPublisher eventPublisher;
     
     private static final List<String> VALID_STATUSES = Arrays.asList("SCHEDULED", "STARTED", "FINISHED", "CANCELLED");
 
     @Transactional
     public Schedule updateScheduleStatus(int scheduleId, ScheduleStatusRequest request) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        int currentUserId = currentUserContext.getUserId();
 
         Schedule schedule = scheduleRepository.findById(scheduleId)
                 .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Schedule not found"));
 
-        if ((schedule.getDriver() == null || schedule.getDriver().getUserId() != currentUser.getUserId()) &&
-            (schedule.getAssistant() == null || schedule.getAssistant().getUserId() != currentUser.getUserId())) {
+        if ((schedule.getDriver() == null || schedule.getDriver().getUserId() != currentUserId) &&
+            (schedule.getAssistant() == null || schedule.getAssistant().getUserId() != currentUserId)) {
             throw new AppException(ErrorCode.ACCESS_DENIED, "Only the driver or assistant of this schedule can update its status");
         }
         
@@ -56,6 +53,7 @@ public class ScheduleStatusService {
         }
         
         Schedule updatedSchedule = scheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(scheduleId));
         
         log.info("Schedule {} status changed from {} to {}", scheduleId, oldStatus, request.getStatus());
         
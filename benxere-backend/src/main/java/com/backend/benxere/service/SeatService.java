@@ -3,17 +3,16 @@ package com.backend.benxere.service;
 import com.backend.benxere.dto.request.SeatRequest;
 import com.backend.benxere.dto.request.SeatUpdateRequest;
 import com.backend.benxere.dto.response.SeatResponse;
+import com.backend.benxere.entity.Schedule;
 import com.backend.benxere.entity.Seat;
 import com.backend.benxere.entity.User;
 import com.backend.benxere.exception.AppException;
 import com.backend.benxere.exception.ErrorCode;
 import com.backend.benxere.mapper.SeatMapper;
 import com.backend.benxere.repository.SeatRepository;
-import com.backend.benxere.repository.UserRepository;
 import com.backend.benxere.service.qrcode.QRCodeService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,8 +26,8 @@ import java.util.stream.Collectors;
 public class SeatService {
     private final SeatRepository seatRepository;
     private final SeatMapper seatMapper;
-    private final UserRepository userRepository;
     private final QRCodeService qrCodeService;
+    private final CurrentUserContext currentUserContext;
 
     public SeatResponse createSeat(SeatRequest seatRequest) {
         Seat seat = seatMapper.toEntity(seatRequest);
@@ -36,6 +35,27 @@ public class SeatService {
         return seatMapper.toSeatResponse(savedSeat);
     }
 
+    /**
+     * The signed payload behind the seat's QR code, for the passenger who booked the seat or the crew
+     * of its schedule. Seats still holding a legacy base64 image are upgraded by
+     * {@link com.backend.benxere.service.qrcode.LegacySeatQRCodeUpgrade}, not here.
+     */
+    @Transactional(readOnly = true)
+    public String getSeatQRCodePayload(int seatId) {
+        Seat seat = getSeatEntityById(seatId);
+        int currentUserId = currentUserContext.getUserId();
+        Schedule schedule = seat.getSchedule();
+        if (!isUser(seat.getBookedBy(), currentUserId) && !isUser(schedule.getDriver(), currentUserId)
+                && !isUser(schedule.getSecondDriver(), currentUserId) && !isUser(schedule.getAssistant(), currentUserId)) {
+            throw new AppException(ErrorCode.ACCESS_DENIED, "You are not allowed to view this ticket");
+        }
+        String qrCodeData = seat.getQrCodeData();
+        if (!seat.isBooked() || !qrCodeService.isSignedPayload(qrCodeData)) {
+            throw new AppException(ErrorCode.QR_CODE_NOT_FOUND);
+        }
+        return qrCodeData;
+    }
+
     public SeatResponse getSeatById(int id) {
         Seat seat = seatRepository.findById(id).orElseThrow(() -> new RuntimeException("Seat not found"));
         return seatMapper.toSeatResponse(seat);
@@ -162,7 +182,7 @@ public class SeatService {
         seat.setBookedBy(user);
         seat.setBookedAt(LocalDateTime.now());
         seat.setPassengerStatus("PENDING");
-        String qrCodeData = qrCodeService.generateQRCodeForSeat(seat);
+        String qrCodeData = qrCodeService.createSignedPayload(seat);
         seat.setQrCodeData(qrCodeData);
         seat.setQrCodeScannedCount(0);
         
@@ -225,25 +245,23 @@ public class SeatService {
     }
     
     private void validateDriverAccessToSeat(Seat seat) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User driver = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        int currentUserId = currentUserContext.getUserId();
         
         User scheduleDriver = seat.getSchedule().getDriver();
         User scheduleAssistant = seat.getSchedule().getAssistant();
         
-        if ((scheduleDriver == null || scheduleDriver.getUserId() != driver.getUserId()) &&
-            (scheduleAssistant == null || scheduleAssistant.getUserId() != driver.getUserId())) {
+        if ((scheduleDriver == null || scheduleDriver.getUserId() != currentUserId) &&
+            (scheduleAssistant == null || scheduleAssistant.getUserId() != currentUserId)) {
             throw new AppException(ErrorCode.ACCESS_DENIED, "You are not authorized to update this seat");
         }
     }
     
+    private static boolean isUser(User user, int userId) {
+        return user != null && user.getUserId() == userId;
+    }
+
     private void updateLastModifiedInfo(Seat seat) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User driver = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-        
-        seat.setLastUpdatedBy(driver.getUserId());
+        seat.setLastUpdatedBy(currentUserContext.getUserId());
         seat.setLastUpdatedAt(LocalDateTime.now());
     }
 }
\ No newline at end of file
@@ -9,10 +9,8 @@ import com.backend.benxere.exception.AppException;
 import com.backend.benxere.exception.ErrorCode;
 import com.backend.benxere.mapper.SeatMapper;
 import com.backend.benxere.repository.SeatRepository;
-import com.backend.benxere.repository.UserRepository;
 import com.backend.benxere.service.qrcode.QRCodeService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,8 +23,8 @@ import java.util.stream.Collectors;
 public class SeatServiceImpl {
     private final SeatRepository seatRepository;
     private final SeatMapper seatMapper;
-    private final UserRepository userRepository;
     private final QRCodeService qrCodeService;
+    private final CurrentUserContext currentUserContext;
 
     public SeatResponse createSeat(SeatRequest seatRequest) {
         Seat seat = seatMapper.toEntity(seatRequest);
@@ -160,7 +158,7 @@ public class SeatServiceImpl {
         seat.setBookedBy(user);
         seat.setBookedAt(LocalDateTime.now());
         seat.setPassengerStatus("PENDING");
-        String qrCodeData = qrCodeService.generateQRCodeForSeat(seat);
+        String qrCodeData = qrCodeService.createSignedPayload(seat);
         seat.setQrCodeData(qrCodeData);
         seat.setQrCodeScannedCount(0);
         
@@ -196,25 +194,19 @@ public class SeatServiceImpl {
     }
     
     private void validateDriverAccessToSeat(Seat seat) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User driver = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        int currentUserId = currentUserContext.getUserId();
         
         User scheduleDriver = seat.getSchedule().getDriver();
         User scheduleAssistant = seat.getSchedule().getAssistant();
         
-        if ((scheduleDriver == null || scheduleDriver.getUserId() != driver.getUserId()) &&
-            (scheduleAssistant == null || scheduleAssistant.getUserId() != driver.getUserId())) {
+        if ((scheduleDriver == null || scheduleDriver.getUserId() != currentUserId) &&
+            (scheduleAssistant == null || scheduleAssistant.getUserId() != currentUserId)) {
             throw new AppException(ErrorCode.ACCESS_DENIED, "You are not authorized to update this seat");
         }
     }
     
     private void updateLastModifiedInfo(Seat seat) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User driver = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-        
-        seat.setLastUpdatedBy(driver.getUserId());
+        seat.setLastUpdatedBy(currentUserContext.getUserId());
         seat.setLastUpdatedAt(LocalDateTime.now());
     }
 }
\ No newline at end of file
@@ -0,0 +1,278 @@
+package com.backend.benxere.service.boarding;
+
+import com.backend.benxere.dto.request.BoardingEventRequest;
+import com.backend.benxere.dto.request.BoardingSyncRequest;
+import com.backend.benxere.dto.response.BoardingEventResultResponse;
+import com.backend.benxere.dto.response.BoardingManifestResponse;
+import com.backend.benxere.dto.response.BoardingPassResponse;
+import com.backend.benxere.dto.response.BoardingSyncResponse;
+import com.backend.benxere.dto.response.PassengerInfoResponse;
+import com.backend.benxere.entity.Booking;
+import com.backend.benxere.entity.Schedule;
+import com.backend.benxere.entity.Seat;
+import com.backend.benxere.entity.User;
+import com.backend.benxere.exception.AppException;
+import com.backend.benxere.exception.ErrorCode;
+import com.backend.benxere.repository.BookingRepository;
+import com.backend.benxere.repository.ScheduleRepository;
+import com.backend.benxere.repository.SeatRepository;
+import com.backend.benxere.repository.projection.PassengerManifestRow;
+import com.backend.benxere.service.CurrentUserContext;
+import com.backend.benxere.service.qrcode.QRCodeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Boarding without a connection. Crew download a manifest of every booked seat with its signed ticket
+ * before departure, match scanned QR codes against it on the device, and later upload the check-ins and
+ * check-outs they recorded in one batch. Each event carries a device-generated id and is recorded in
+ * {@code boarding_events}, so a batch that is retried after a dropped connection applies only once.
+ * Syncs for one schedule run one at a time under a lock on its row, and an event is applied only after
+ * its row was inserted, so an id recorded by any other sync is reported as a duplicate.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BoardingService {
+    private static final String CHECK_IN = "CHECK_IN";
+    private static final String CHECK_OUT = "CHECK_OUT";
+    private static final String APPLIED = "APPLIED";
+    private static final String DUPLICATE = "DUPLICATE";
+    private static final String REJECTED = "REJECTED";
+
+    private final ScheduleRepository scheduleRepository;
+    private final BookingRepository bookingRepository;
+    private final SeatRepository seatRepository;
+    private final QRCodeService qrCodeService;
+    private final CurrentUserContext currentUserContext;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public BoardingManifestResponse getManifest(int scheduleId) {
+        Schedule schedule = requireCrewSchedule(scheduleId);
+        List<BoardingPassResponse> passengers = seatRepository.findBookedWithPassengerByScheduleId(scheduleId).stream()
+                .map(this::toBoardingPass)
+                .collect(Collectors.toList());
+        return BoardingManifestResponse.builder()
+                .scheduleId(scheduleId)
+                .departureTime(schedule.getDepartureTime())
+                .generatedAt(LocalDateTime.now())
+                .passengers(passengers)
+                .build();
+    }
+
+    /** Passenger list for the crew's views; same rows as the assistant's, in one statement. */
+    @Transactional(readOnly = true)
+    public List<PassengerInfoResponse> getPassengers(int scheduleId) {
+        requireCrewSchedule(scheduleId);
+        return bookingRepository.findPassengerManifest(scheduleId, Booking.BookingStatus.Confirmed).stream()
+                .map(PassengerManifestRow::toPassengerInfo)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Applies a batch of offline events in the order they happened, in one transaction. Check-in and
+     * check-out times are only set once, so replaying an event recorded by both driver and assistant
+     * keeps the earliest time.
+     */
+    @Transactional
+    public BoardingSyncResponse syncEvents(int scheduleId, BoardingSyncRequest request) {
+        requireCrew(scheduleRepository.findByIdForUpdate(scheduleId)
+                .orElseThrow(() -> new AppException(ErrorCode.SCHEDULE_NOT_FOUND)));
+        List<BoardingEventRequest> events = request.getEvents() != null ? request.getEvents() : List.of();
+        BoardingEventResultResponse[] results = new BoardingEventResultResponse[events.size()];
+        if (events.isEmpty()) {
+            return summarize(results);
+        }
+
+        Set<String> eventIds = events.stream()
+                .map(BoardingEventRequest::getEventId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> seen = findRecordedEventIds(eventIds);
+        Set<Integer> seatIds = events.stream()
+                .map(BoardingEventRequest::getSeatId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, Seat> seats = seatRepository.findAllByScheduleScheduleIdAndSeatIdIn(scheduleId, seatIds).stream()
+                .collect(Collectors.toMap(Seat::getSeatId, Function.identity()));
+
+        int userId = currentUserContext.getUserId();
+        LocalDateTime receivedAt = LocalDateTime.now();
+        List<Integer> order = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(i -> occurredAt(events.get(i), receivedAt)));
+
+        int applied = 0;
+        for (int index : order) {
+            BoardingEventRequest event = events.get(index);
+            String rejection = validate(event, seats.get(event.getSeatId()));
+            if (rejection != null) {
+                results[index] = result(event, REJECTED, rejection);
+                continue;
+            }
+            LocalDateTime occurredAt = occurredAt(event, receivedAt);
+            if (!seen.add(event.getEventId()) || !record(event, scheduleId, occurredAt, userId, receivedAt)) {
+                results[index] = result(event, DUPLICATE, null);
+                continue;
+            }
+            apply(seats.get(event.getSeatId()), event, occurredAt, userId);
+            results[index] = result(event, APPLIED, null);
+            applied++;
+        }
+        log.info("Synced {} boarding events for schedule {} ({} applied)", events.size(), scheduleId, applied);
+        return summarize(results);
+    }
+
+    /**
+     * Inserts the event's row; false when its id is already recorded. Any other failure (a missing seat,
+     * an oversized value) fails the whole sync rather than being skipped.
+     */
+    private boolean record(BoardingEventRequest event, int scheduleId, LocalDateTime occurredAt, int userId,
+                           LocalDateTime receivedAt) {
+        try {
+            namedParameterJdbcTemplate.update(
+                    "INSERT INTO boarding_events " +
+                    "(event_id, schedule_id, seat_id, event_type, occurred_at, recorded_by, received_at) " +
+                    "VALUES (:eventId, :scheduleId, :seatId, :type, :occurredAt, :recordedBy, :receivedAt)",
+                    new MapSqlParameterSource()
+                            .addValue("eventId", event.getEventId())
+                            .addValue("scheduleId", scheduleId)
+                            .addValue("seatId", event.getSeatId())
+                            .addValue("type", event.getType())
+                            .addValue("occurredAt", Timestamp.valueOf(occurredAt))
+                            .addValue("recordedBy", userId)
+                            .addValue("receivedAt", Timestamp.valueOf(receivedAt)));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /** Loads the schedule once and checks that the caller drives or assists on it. */
+    private Schedule requireCrewSchedule(int scheduleId) {
+        return requireCrew(scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new AppException(ErrorCode.SCHEDULE_NOT_FOUND)));
+    }
+
+    private Schedule requireCrew(Schedule schedule) {
+        int userId = currentUserContext.getUserId();
+        if (!isUser(schedule.getDriver(), userId) && !isUser(schedule.getSecondDriver(), userId)
+                && !isUser(schedule.getAssistant(), userId)) {
+            throw new AppException(ErrorCode.ACCESS_DENIED, "You are not assigned to this schedule");
+        }
+        return schedule;
+    }
+
+    private static boolean isUser(User user, int userId) {
+        return user != null && user.getUserId() == userId;
+    }
+
+    private Set<String> findRecordedEventIds(Set<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT event_id FROM boarding_events WHERE event_id IN (:eventIds)",
+                new MapSqlParameterSource("eventIds", eventIds), String.class));
+    }
+
+    private static String validate(BoardingEventRequest event, Seat seat) {
+        if (event.getEventId() == null || event.getEventId().isBlank() || event.getEventId().length() > 64) {
+            return "Event id is required and at most 64 characters";
+        }
+        if (!CHECK_IN.equals(event.getType()) && !CHECK_OUT.equals(event.getType())) {
+            return "Unknown event type: " + event.getType();
+        }
+        if (seat == null) {
+            return "Seat is not part of this schedule";
+        }
+        if (!seat.isBooked()) {
+            return "Seat is not booked";
+        }
+        return null;
+    }
+
+    private static void apply(Seat seat, BoardingEventRequest event, LocalDateTime occurredAt, int userId) {
+        if (CHECK_IN.equals(event.getType())) {
+            if (seat.getCheckInTime() == null) {
+                seat.setCheckInTime(occurredAt);
+            }
+            if (seat.getCheckOutTime() == null) {
+                seat.setPassengerStatus("CHECKED_IN");
+            }
+        } else {
+            if (seat.getCheckOutTime() == null) {
+                seat.setCheckOutTime(occurredAt);
+            }
+            seat.setPassengerStatus("CHECKED_OUT");
+        }
+        if (event.getBaggageCount() != null) {
+            seat.setBaggageCount(event.getBaggageCount());
+        }
+        seat.setLastUpdatedBy(userId);
+        seat.setLastUpdatedAt(occurredAt);
+    }
+
+    /** Devices without a clock reading are treated as reporting now; future times are clamped too. */
+    private static LocalDateTime occurredAt(BoardingEventRequest event, LocalDateTime receivedAt) {
+        LocalDateTime occurredAt = event.getOccurredAt();
+        return occurredAt == null || occurredAt.isAfter(receivedAt) ? receivedAt : occurredAt;
+    }
+
+    private BoardingPassResponse toBoardingPass(Seat seat) {
+        User passenger = seat.getBookedBy();
+        String passengerName = passenger == null ? null
+                : ((passenger.getFirstName() != null ? passenger.getFirstName() : "") + " "
+                + (passenger.getLastName() != null ? passenger.getLastName() : "")).trim();
+        return BoardingPassResponse.builder()
+                .seatId(seat.getSeatId())
+                .seatNumber(seat.getSeatNumber())
+                .ticketToken(qrCodeService.isSignedPayload(seat.getQrCodeData()) ? seat.getQrCodeData() : null)
+                .passengerName(passengerName)
+                .phoneNumber(passenger != null ? passenger.getPhoneNumber() : null)
+                .passengerStatus(seat.getPassengerStatus())
+                .checkInTime(seat.getCheckInTime())
+                .checkOutTime(seat.getCheckOutTime())
+                .baggageCount(seat.getBaggageCount())
+                .build();
+    }
+
+    private static BoardingEventResultResponse result(BoardingEventRequest event, String result, String message) {
+        return BoardingEventResultResponse.builder()
+                .eventId(event.getEventId())
+                .seatId(event.getSeatId())
+                .result(result)
+                .message(message)
+                .build();
+    }
+
+    private static BoardingSyncResponse summarize(BoardingEventResultResponse[] results) {
+        List<BoardingEventResultResponse> ordered = List.of(results);
+        return BoardingSyncResponse.builder()
+                .applied((int) ordered.stream().filter(r -> APPLIED.equals(r.getResult())).count())
+                .duplicates((int) ordered.stream().filter(r -> DUPLICATE.equals(r.getResult())).count())
+                .rejected((int) ordered.stream().filter(r -> REJECTED.equals(r.getResult())).count())
+                .results(ordered)
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.backend.benxere.service.chat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Hands out chat message ids before the row is written, so a message can be pushed with its final id
+ * while its insert is still queued. Ids come from blocks reserved in {@code chat_message_sequence};
+ * every instance reserves its own blocks, so ids are unique across instances but only roughly ordered.
+ */
+@Component
+public class ChatMessageIdAllocator {
+    private static final String RESERVE_BLOCK =
+            "UPDATE chat_message_sequence SET next_val = LAST_INSERT_ID(next_val + %d) WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int blockSize;
+
+    private long next;
+    private long limit;
+
+    public ChatMessageIdAllocator(JdbcTemplate jdbcTemplate,
+                                  @Value("${chat.write-behind.id-block-size:1000}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockSize = blockSize;
+    }
+
+    public synchronized int nextId() {
+        if (next >= limit) {
+            limit = reserveBlock();
+            next = limit - blockSize;
+        }
+        return Math.toIntExact(next++);
+    }
+
+    /** Returns the exclusive end of the reserved block; LAST_INSERT_ID is per connection, hence one callback. */
+    private long reserveBlock() {
+        Long end = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(String.format(RESERVE_BLOCK, blockSize));
+                try (ResultSet resultSet = statement.executeQuery("SELECT LAST_INSERT_ID()")) {
+                    resultSet.next();
+                    return resultSet.getLong(1);
+                }
+            }
+        });
+        if (end == null || end <= 0) {
+            throw new IllegalStateException("chat_message_sequence is not initialised");
+        }
+        return end;
+    }
+}
@@ -0,0 +1,193 @@
+package com.backend.benxere.service.chat;
+
+import com.backend.benxere.exception.AppException;
+import com.backend.benxere.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for chat messages. Messages are already delivered when they arrive here; they are
+ * written to {@code chat_messages} in JDBC batches at least every {@code chat.write-behind.flush-interval-ms},
+ * which bounds how much a crash can lose. When the queue is full the caller flushes inline, so a burst
+ * slows senders down instead of dropping messages.
+ * <p>
+ * A batch that fails is written again row by row. Rows the database rejects on their own (constraint
+ * violations, oversized content) are dead-lettered: logged, counted and dropped, so one bad row cannot
+ * hold back everything queued behind it. Only a failure of the database itself keeps rows for retry.
+ */
+@Component
+@Slf4j
+public class ChatMessageWriter {
+    private static final String INSERT_SQL = "INSERT INTO chat_messages "
+            + "(id, content, sender_id, receiver_id, sent_at, is_read, conversation_key) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SAME_ROW_SQL =
+            "SELECT COUNT(*) FROM chat_messages WHERE id = ? AND sender_id = ? AND receiver_id = ?";
+
+    /** Capacity of the {@code TEXT} column holding message content. */
+    public static final int MAX_CONTENT_BYTES = 65535;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<PendingMessage> queue;
+    private final int batchSize;
+    private final long appendTimeoutMillis;
+    private final Counter written;
+    private final Counter failed;
+    private final Counter deadLettered;
+
+    /** Rows left over from a batch the database could not take; retried before anything newer is written. */
+    private List<PendingMessage> retry = List.of();
+
+    public ChatMessageWriter(JdbcTemplate jdbcTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${chat.write-behind.queue-capacity:10000}") int queueCapacity,
+                             @Value("${chat.write-behind.batch-size:500}") int batchSize,
+                             @Value("${chat.write-behind.append-timeout-ms:2000}") long appendTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.appendTimeoutMillis = appendTimeoutMillis;
+        this.written = Counter.builder("chat.write.behind.written").register(meterRegistry);
+        this.failed = Counter.builder("chat.write.behind.failed.batches").register(meterRegistry);
+        this.deadLettered = Counter.builder("chat.write.behind.dead.lettered").register(meterRegistry);
+        meterRegistry.gauge("chat.write.behind.queued", queue, BlockingQueue::size);
+    }
+
+    /**
+     * Queues the message, flushing inline when the queue is full. Fails with {@link ErrorCode#CHAT_BACKLOG_FULL}
+     * only if the database cannot keep up for {@code chat.write-behind.append-timeout-ms}.
+     */
+    public void append(PendingMessage message) {
+        if (queue.offer(message)) {
+            return;
+        }
+        flush();
+        try {
+            if (!queue.offer(message, appendTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new AppException(ErrorCode.CHAT_BACKLOG_FULL);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorCode.CHAT_BACKLOG_FULL);
+        }
+    }
+
+    /** Whether the content fits {@code chat_messages.content}; checked before a message is sent. */
+    public static boolean isStorable(String content) {
+        if (content == null || content.isEmpty()) {
+            return false;
+        }
+        // A UTF-8 char takes at most three bytes per UTF-16 unit, so short content needs no encoding.
+        return content.length() * 3 <= MAX_CONTENT_BYTES
+                || content.getBytes(StandardCharsets.UTF_8).length <= MAX_CONTENT_BYTES;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.write-behind.flush-interval-ms:200}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    public synchronized void flush() {
+        if (!retry.isEmpty()) {
+            retry = write(retry);
+            if (!retry.isEmpty()) {
+                return;
+            }
+        }
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            retry = write(batch);
+            if (!retry.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!retry.isEmpty() || !queue.isEmpty()) {
+            log.error("{} chat messages could not be written before shutdown", retry.size() + queue.size());
+        }
+    }
+
+    /** Writes the batch, falling back to one row at a time; returns the rows still to be retried. */
+    private List<PendingMessage> write(List<PendingMessage> batch) {
+        try {
+            insert(batch);
+            written.increment(batch.size());
+            return List.of();
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Failed to write {} chat messages as a batch, writing them one by one: {}",
+                    batch.size(), e.getMessage());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            PendingMessage message = batch.get(i);
+            try {
+                insert(List.of(message));
+                written.increment();
+            } catch (DuplicateKeyException e) {
+                // Rows before the failing one may have been stored by the batch already.
+                if (!isStored(message)) {
+                    deadLetter(message, e);
+                }
+            } catch (DataIntegrityViolationException e) {
+                deadLetter(message, e);
+            } catch (DataAccessException e) {
+                log.error("Failed to write {} chat messages, will retry: {}", batch.size() - i, e.getMessage());
+                return new ArrayList<>(batch.subList(i, batch.size()));
+            } catch (RuntimeException e) {
+                deadLetter(message, e);
+            }
+        }
+        return List.of();
+    }
+
+    private void insert(List<PendingMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (statement, message) -> {
+            statement.setInt(1, message.id());
+            statement.setString(2, message.content());
+            statement.setInt(3, message.senderId());
+            statement.setInt(4, message.receiverId());
+            statement.setTimestamp(5, Timestamp.valueOf(message.sentAt()));
+            statement.setBoolean(6, false);
+            statement.setLong(7, message.conversationKey());
+        });
+    }
+
+    private boolean isStored(PendingMessage message) {
+        Integer count = jdbcTemplate.queryForObject(SAME_ROW_SQL, Integer.class,
+                message.id(), message.senderId(), message.receiverId());
+        return count != null && count > 0;
+    }
+
+    private void deadLetter(PendingMessage message, Exception cause) {
+        deadLettered.increment();
+        log.error("Dropping chat message {} from {} to {} ({} chars) that the database rejected: {}",
+                message.id(), message.senderId(), message.receiverId(),
+                message.content() != null ? message.content().length() : null, cause.getMessage());
+    }
+
+    public record PendingMessage(int id, String content, int senderId, int receiverId,
+                                 LocalDateTime sentAt, long conversationKey) {
+    }
+}
@@ -0,0 +1,383 @@
+package com.backend.benxere.service.chat;
+
+import com.backend.benxere.constant.PredefinedRole;
+import com.backend.benxere.dto.response.PresenceUpdateResponse;
+import com.backend.benxere.entity.User;
+import com.backend.benxere.repository.UserRepository;
+import com.backend.benxere.service.cluster.ClusterBus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Who is connected over STOMP, fed by session connect/disconnect events. A user may hold several
+ * sessions (tabs, devices) and is online while any of them is alive. A session that negotiated STOMP
+ * heartbeats is expired after {@code chat.presence.missed-heartbeats} intervals without any inbound
+ * frame, which covers disconnects that never reached us; sessions without heartbeats only end on
+ * disconnect. Changes are collected and pushed to {@code /topic/presence} in one batch per
+ * {@code chat.presence.push-interval-ms}, so a flapping connection produces at most one update.
+ * <p>
+ * Each instance also publishes the users connected to it on the {@link ClusterBus}, so {@link #isOnline}
+ * and agent assignment see users connected to other instances. An instance that stops publishing is
+ * forgotten after {@code chat.presence.missed-heartbeats} publish intervals.
+ */
+@Service
+@Slf4j
+public class PresenceService {
+    public static final String PRESENCE_TOPIC = "/topic/presence";
+    private static final String CLUSTER_CHANNEL = "presence";
+
+    private final UserRepository userRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterBus clusterBus;
+    private final long heartbeatMillis;
+    private final int missedHeartbeats;
+    private final long clusterPublishMillis;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<Integer, OnlineUser> usersById = new ConcurrentHashMap<>();
+    private final Map<String, Session> sessionsById = new ConcurrentHashMap<>();
+    private final Set<Integer> changedUsers = ConcurrentHashMap.newKeySet();
+    private final Map<String, PeerNode> peersById = new ConcurrentHashMap<>();
+    private final Map<Integer, OnlineUser> peerAgentsById = new ConcurrentHashMap<>();
+
+    public PresenceService(UserRepository userRepository,
+                           @Lazy SimpMessagingTemplate messagingTemplate,
+                           ClusterBus clusterBus,
+                           @Value("${websocket.heartbeat.interval-ms:10000}") long heartbeatMillis,
+                           @Value("${chat.presence.missed-heartbeats:3}") int missedHeartbeats,
+                           @Value("${chat.presence.cluster-publish-interval-ms:10000}") long clusterPublishMillis) {
+        this.userRepository = userRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.clusterBus = clusterBus;
+        this.heartbeatMillis = heartbeatMillis;
+        this.missedHeartbeats = Math.max(1, missedHeartbeats);
+        this.clusterPublishMillis = clusterPublishMillis;
+        clusterBus.subscribe(CLUSTER_CHANNEL, this::onPeerSnapshot);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        Principal principal = event.getUser();
+        if (sessionId == null || principal == null) {
+            return;
+        }
+        Object connect = event.getMessage().getHeaders().get(SimpMessageHeaderAccessor.CONNECT_MESSAGE_HEADER);
+        long[] clientHeartbeat = connect instanceof Message<?> connectMessage
+                ? SimpMessageHeaderAccessor.getHeartbeat(connectMessage.getHeaders()) : null;
+        register(sessionId, principal, timeoutFor(clientHeartbeat));
+    }
+
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        removeSession(event.getSessionId());
+    }
+
+    /**
+     * Called for every inbound frame, heartbeats included. A frame from an authenticated session we no
+     * longer track (expired while the client was still there) registers it again.
+     */
+    public void touch(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        if (sessionId == null) {
+            return;
+        }
+        Session session = sessionsById.get(sessionId);
+        if (session != null) {
+            session.lastSeen = System.currentTimeMillis();
+            return;
+        }
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        Principal principal = SimpMessageHeaderAccessor.getUser(headers);
+        if (principal != null && type != SimpMessageType.CONNECT && type != SimpMessageType.DISCONNECT) {
+            register(sessionId, principal, missedHeartbeats * heartbeatMillis);
+        }
+    }
+
+    public boolean isOnline(Integer userId) {
+        if (userId == null) {
+            return false;
+        }
+        if (usersById.containsKey(userId)) {
+            return true;
+        }
+        long cutoff = peerCutoff();
+        return peersById.values().stream().anyMatch(peer -> peer.receivedAt >= cutoff && peer.users.contains(userId));
+    }
+
+    public Set<Integer> onlineAmong(Collection<Integer> userIds) {
+        Set<Integer> online = new HashSet<>();
+        for (Integer userId : userIds) {
+            if (isOnline(userId)) {
+                online.add(userId);
+            }
+        }
+        return online;
+    }
+
+    public Optional<Integer> userIdOfSession(String sessionId) {
+        Session session = sessionId != null ? sessionsById.get(sessionId) : null;
+        return session != null ? Optional.of(session.userId) : Optional.empty();
+    }
+
+    /** Email of an online user, so callers can address them without a lookup. */
+    public Optional<String> emailOf(Integer userId) {
+        OnlineUser user = userId != null ? usersById.get(userId) : null;
+        return user != null ? Optional.of(user.email) : Optional.empty();
+    }
+
+    /**
+     * Picks the online customer-care agent, optionally of one bus owner, who is inside their working hours
+     * and was handed a conversation least recently. Agents connected to other instances are candidates
+     * too; how recently they were assigned is only known per instance.
+     */
+    public synchronized Optional<OnlineUser> assignCustomerCareAgent(Integer busOwnerId) {
+        LocalTime now = LocalTime.now();
+        Optional<OnlineUser> agent = Stream.concat(usersById.values().stream(), peerAgents().stream())
+                .filter(user -> PredefinedRole.CUSTOMER_CARE_ROLE.equals(user.role))
+                .filter(user -> busOwnerId == null || busOwnerId.equals(user.employerId))
+                .filter(user -> user.isWorkingAt(now))
+                .min(Comparator.comparingLong(user -> user.lastAssignedAt));
+        agent.ifPresent(user -> user.lastAssignedAt = System.currentTimeMillis());
+        return agent;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.presence.sweep-interval-ms:10000}")
+    public void expireStaleSessions() {
+        long now = System.currentTimeMillis();
+        List<String> stale = new ArrayList<>();
+        sessionsById.forEach((sessionId, session) -> {
+            if (session.timeoutMillis > 0 && session.lastSeen < now - session.timeoutMillis) {
+                stale.add(sessionId);
+            }
+        });
+        stale.forEach(this::removeSession);
+
+        long cutoff = peerCutoff();
+        peersById.values().removeIf(peer -> peer.receivedAt < cutoff);
+        Set<Integer> peerAgentIds = peersById.values().stream()
+                .flatMap(peer -> peer.agents.stream())
+                .collect(Collectors.toSet());
+        peerAgentsById.keySet().retainAll(peerAgentIds);
+    }
+
+    /** Tells the other instances who is connected here; also sent right after every batch of changes. */
+    @Scheduled(fixedDelayString = "${chat.presence.cluster-publish-interval-ms:10000}")
+    public void publishToPeers() {
+        if (!clusterBus.isDistributed()) {
+            return;
+        }
+        Set<Integer> users = Set.copyOf(usersById.keySet());
+        Set<Integer> agents = usersById.values().stream()
+                .filter(user -> PredefinedRole.CUSTOMER_CARE_ROLE.equals(user.role))
+                .map(user -> user.userId)
+                .collect(Collectors.toSet());
+        try {
+            clusterBus.publish(CLUSTER_CHANNEL, objectMapper.writeValueAsString(
+                    new NodeSnapshot(clusterBus.nodeId(), users, agents)));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to publish presence to other instances: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.presence.push-interval-ms:1000}")
+    public void pushChanges() {
+        if (changedUsers.isEmpty()) {
+            return;
+        }
+        List<Integer> online = new ArrayList<>();
+        List<Integer> offline = new ArrayList<>();
+        for (Integer userId : List.copyOf(changedUsers)) {
+            changedUsers.remove(userId);
+            (isOnline(userId) ? online : offline).add(userId);
+        }
+        try {
+            messagingTemplate.convertAndSend(PRESENCE_TOPIC,
+                    PresenceUpdateResponse.builder().online(online).offline(offline).build());
+        } catch (Exception e) {
+            log.warn("Failed to push presence update: {}", e.getMessage());
+        }
+        publishToPeers();
+    }
+
+    private void register(String sessionId, Principal principal, long timeoutMillis) {
+        OnlineUser user = resolve(principal);
+        if (user == null) {
+            return;
+        }
+        sessionsById.put(sessionId, new Session(user.userId, System.currentTimeMillis(), timeoutMillis));
+        usersById.compute(user.userId, (id, existing) -> {
+            OnlineUser online = existing != null ? existing : user;
+            online.sessions.add(sessionId);
+            return online;
+        });
+        changedUsers.add(user.userId);
+    }
+
+    /**
+     * The client sends a frame at least every {@code max(its heartbeat, ours)} ms once both sides asked for
+     * heartbeats; without them a quiet session is not evidence of a dead one, so it never times out.
+     */
+    private long timeoutFor(long[] clientHeartbeat) {
+        long clientSends = clientHeartbeat != null && clientHeartbeat.length > 0 ? clientHeartbeat[0] : 0;
+        if (clientSends <= 0 || heartbeatMillis <= 0) {
+            return 0;
+        }
+        return missedHeartbeats * Math.max(clientSends, heartbeatMillis);
+    }
+
+    private void onPeerSnapshot(String body) {
+        try {
+            NodeSnapshot snapshot = objectMapper.readValue(body, NodeSnapshot.class);
+            peersById.put(snapshot.nodeId(), new PeerNode(snapshot.users(), snapshot.agents(), System.currentTimeMillis()));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable presence from another instance: {}", e.getMessage());
+        }
+    }
+
+    private long peerCutoff() {
+        return System.currentTimeMillis() - missedHeartbeats * clusterPublishMillis;
+    }
+
+    /** Agents online only on other instances, loaded once each while they stay online. */
+    private List<OnlineUser> peerAgents() {
+        long cutoff = peerCutoff();
+        Set<Integer> agentIds = peersById.values().stream()
+                .filter(peer -> peer.receivedAt >= cutoff)
+                .flatMap(peer -> peer.agents.stream())
+                .filter(userId -> !usersById.containsKey(userId))
+                .collect(Collectors.toSet());
+        List<Integer> missing = agentIds.stream()
+                .filter(userId -> !peerAgentsById.containsKey(userId))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            userRepository.findAllById(missing).forEach(user -> peerAgentsById.put(user.getUserId(), OnlineUser.of(user)));
+        }
+        return agentIds.stream()
+                .map(peerAgentsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private void removeSession(String sessionId) {
+        Session session = sessionId != null ? sessionsById.remove(sessionId) : null;
+        if (session == null) {
+            return;
+        }
+        usersById.computeIfPresent(session.userId, (id, user) -> {
+            user.sessions.remove(sessionId);
+            return user.sessions.isEmpty() ? null : user;
+        });
+        changedUsers.add(session.userId);
+    }
+
+    private OnlineUser resolve(Principal principal) {
+        Authentication authentication = principal instanceof Authentication auth ? auth : null;
+        if (authentication instanceof JwtAuthenticationToken jwtAuthentication
+                && jwtAuthentication.getToken().getClaim("userId") instanceof Number userId) {
+            OnlineUser known = usersById.get(userId.intValue());
+            if (known != null) {
+                return known;
+            }
+        }
+        return userRepository.findByEmail(principal.getName()).map(OnlineUser::of).orElse(null);
+    }
+
+    public static final class OnlineUser {
+        private final int userId;
+        private final String email;
+        private final String fullName;
+        private final String role;
+        private final Integer employerId;
+        private final LocalTime workStart;
+        private final LocalTime workEnd;
+        private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+        private volatile long lastAssignedAt;
+
+        private OnlineUser(User user) {
+            this.userId = user.getUserId();
+            this.email = user.getEmail();
+            this.fullName = (Objects.toString(user.getFirstName(), "") + " " + Objects.toString(user.getLastName(), "")).trim();
+            this.role = user.getRole() != null ? user.getRole().getName() : null;
+            this.employerId = user.getManager() != null ? user.getManager().getUserId() : null;
+            this.workStart = user.getWorkStartTime() != null ? user.getWorkStartTime().toLocalTime() : null;
+            this.workEnd = user.getWorkEndTime() != null ? user.getWorkEndTime().toLocalTime() : null;
+        }
+
+        static OnlineUser of(User user) {
+            return new OnlineUser(user);
+        }
+
+        /** Agents without configured hours are always available; shifts may wrap past midnight. */
+        boolean isWorkingAt(LocalTime time) {
+            if (workStart == null || workEnd == null) {
+                return true;
+            }
+            if (workStart.isBefore(workEnd)) {
+                return !time.isBefore(workStart) && time.isBefore(workEnd);
+            }
+            return !time.isBefore(workStart) || time.isBefore(workEnd);
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getFullName() {
+            return fullName;
+        }
+    }
+
+    private static final class Session {
+        private final int userId;
+        private final long timeoutMillis;
+        private volatile long lastSeen;
+
+        Session(int userId, long lastSeen, long timeoutMillis) {
+            this.userId = userId;
+            this.lastSeen = lastSeen;
+            this.timeoutMillis = timeoutMillis;
+        }
+    }
+
+    record NodeSnapshot(String nodeId, Set<Integer> users, Set<Integer> agents) {
+    }
+
+    private record PeerNode(Set<Integer> users, Set<Integer> agents, long receivedAt) {
+    }
+}
@@ -0,0 +1,169 @@
+package com.backend.benxere.service.chat;
+
+import com.backend.benxere.entity.ChatMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Read receipts as a high-water mark per (reader, conversation) instead of flipping {@code is_read} on
+ * every message. Clients report reads on every scroll; those reports are merged in memory and written
+ * to {@code chat_read_marks} once per {@code chat.read-receipts.flush-interval-ms}. A report names the
+ * newest message the client has shown, and the mark is that message's stored (sentAt, id) position, so
+ * no server clock is involved. A message counts as read when it is not after its receiver's mark in
+ * that order. Reads of a conversation's marks write its unflushed reports first.
+ */
+@Service
+@Slf4j
+public class ReadReceiptService {
+    /**
+     * Moves the mark to the reported message, unless the stored mark is already further. Only messages
+     * of the reader's own conversation qualify. The derived table compares the candidate with the stored
+     * mark on both columns, so the update only copies a position that is already the later of the two.
+     */
+    private static final String MARK_UP_TO = "INSERT INTO chat_read_marks "
+            + "(reader_id, conversation_key, last_read_message_id, last_read_sent_at, updated_at) "
+            + "SELECT reader_id, conversation_key, message_id, sent_at, NOW() FROM ("
+            + "SELECT ? AS reader_id, m.conversation_key, "
+            + "IF(r.reader_id IS NULL OR (m.sent_at, m.id) > (r.last_read_sent_at, r.last_read_message_id), "
+            + "m.id, r.last_read_message_id) AS message_id, "
+            + "IF(r.reader_id IS NULL OR (m.sent_at, m.id) > (r.last_read_sent_at, r.last_read_message_id), "
+            + "m.sent_at, r.last_read_sent_at) AS sent_at "
+            + "FROM chat_messages m "
+            + "LEFT JOIN chat_read_marks r ON r.reader_id = ? AND r.conversation_key = m.conversation_key "
+            + "WHERE m.id = ? AND m.conversation_key = ?) AS new "
+            + "ON DUPLICATE KEY UPDATE last_read_message_id = new.message_id, last_read_sent_at = new.sent_at, "
+            + "updated_at = NOW()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChatMessageWriter chatMessageWriter;
+    /** Reported message ids per reader and conversation; their order is only known once they are resolved. */
+    private final Map<ReadKey, Set<Integer>> pending = new ConcurrentHashMap<>();
+    private final Counter receipts;
+    private final Counter writes;
+
+    public ReadReceiptService(JdbcTemplate jdbcTemplate, ChatMessageWriter chatMessageWriter, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chatMessageWriter = chatMessageWriter;
+        this.receipts = Counter.builder("chat.read.receipts").register(meterRegistry);
+        this.writes = Counter.builder("chat.read.marks.written").register(meterRegistry);
+    }
+
+    /**
+     * Records that {@code readerId} has read the conversation with {@code partnerId} up to and including
+     * message {@code lastReadMessageId}. Ids that are not part of that conversation are ignored.
+     */
+    public void markRead(int readerId, int partnerId, int lastReadMessageId) {
+        receipts.increment();
+        // Added inside compute, so a set the writer has already taken is never added to.
+        pending.compute(new ReadKey(readerId, ChatMessage.conversationKey(readerId, partnerId)), (key, messageIds) -> {
+            Set<Integer> reported = messageIds != null ? messageIds : ConcurrentHashMap.newKeySet();
+            reported.add(lastReadMessageId);
+            return reported;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${chat.read-receipts.flush-interval-ms:2000}")
+    public void flush() {
+        write(key -> true);
+    }
+
+    /** Writes one reader's unflushed marks now, so queries that join {@code chat_read_marks} see them. */
+    public void flushReader(int readerId) {
+        write(key -> key.readerId() == readerId);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /** Both participants' marks for one conversation, including reads not yet flushed. */
+    public ReadMarks marksFor(long conversationKey) {
+        write(key -> key.conversationKey() == conversationKey);
+        Map<Integer, Mark> stored = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT reader_id, last_read_message_id, last_read_sent_at FROM chat_read_marks WHERE conversation_key = ?",
+                resultSet -> {
+                    stored.put(resultSet.getInt(1),
+                            new Mark(resultSet.getInt(2), resultSet.getTimestamp(3).toLocalDateTime()));
+                },
+                conversationKey);
+        return new ReadMarks(stored);
+    }
+
+    /**
+     * Writes the pending reports whose key matches. Every reported id of a key becomes one row; each row
+     * only ever moves the mark forward, so their order does not matter.
+     */
+    private synchronized void write(Predicate<ReadKey> matching) {
+        List<ReadKey> keys = pending.keySet().stream().filter(matching).collect(Collectors.toList());
+        if (keys.isEmpty()) {
+            return;
+        }
+        // Marks are resolved against chat_messages, so queued messages must be there first.
+        chatMessageWriter.flush();
+
+        Map<ReadKey, Set<Integer>> taken = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (ReadKey key : keys) {
+            Set<Integer> messageIds = pending.remove(key);
+            if (messageIds == null) {
+                continue;
+            }
+            taken.put(key, messageIds);
+            messageIds.forEach(messageId -> rows.add(
+                    new Object[]{key.readerId(), key.readerId(), messageId, key.conversationKey()}));
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(MARK_UP_TO, rows);
+            writes.increment(rows.size());
+        } catch (Exception e) {
+            log.error("Failed to write {} read marks, will retry: {}", rows.size(), e.getMessage());
+            taken.forEach((key, messageIds) -> pending.merge(key, messageIds, (newer, failed) -> {
+                newer.addAll(failed);
+                return newer;
+            }));
+        }
+    }
+
+    private record ReadKey(int readerId, long conversationKey) {
+    }
+
+    private record Mark(int messageId, LocalDateTime sentAt) {
+    }
+
+    public static final class ReadMarks {
+        private final Map<Integer, Mark> stored;
+
+        private ReadMarks(Map<Integer, Mark> stored) {
+            this.stored = stored;
+        }
+
+        public boolean isRead(ChatMessage message) {
+            Mark mark = stored.get(message.getReceiver().getUserId());
+            if (mark == null) {
+                return false;
+            }
+            int bySentAt = message.getSentAt().compareTo(mark.sentAt());
+            return bySentAt < 0 || (bySentAt == 0 && message.getId() <= mark.messageId());
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.backend.benxere.service.chat;
+
+import com.backend.benxere.dto.response.UnreadCountResponse;
+import com.backend.benxere.service.cluster.ClusterBus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unread counts per user and per conversation, kept in memory and adjusted on every send and read so
+ * badges never count rows. {@code chat_unread_counters} backs them: a user's counters are loaded on
+ * first use, changes are written as deltas every {@code chat.unread.flush-interval-ms}, and users who
+ * went offline are dropped from memory after their changes are written.
+ * <p>
+ * Counters are held per instance. When an instance writes changes it names the affected users on the
+ * {@link ClusterBus}, and the other instances drop those users so their next read loads the written
+ * counts; a change made elsewhere therefore shows up within one flush interval.
+ */
+@Service
+@Slf4j
+public class UnreadCounterService {
+    private static final String APPLY_CHANGE = "INSERT INTO chat_unread_counters (user_id, partner_id, unread_count) "
+            + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE unread_count = GREATEST(0, IF(?, 0, unread_count) + ?)";
+
+    private static final String CLUSTER_CHANNEL = "unread-counters";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PresenceService presenceService;
+    private final ClusterBus clusterBus;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Integer, UserCounters> countersByUser = new ConcurrentHashMap<>();
+    private final Map<CounterKey, Change> pending = new ConcurrentHashMap<>();
+    /** Held while pending changes move to the table, so a load never sees them in both places or neither. */
+    private final Object writeLock = new Object();
+
+    public UnreadCounterService(JdbcTemplate jdbcTemplate, PresenceService presenceService, ClusterBus clusterBus) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.presenceService = presenceService;
+        this.clusterBus = clusterBus;
+        clusterBus.subscribe(CLUSTER_CHANNEL, this::onWrittenElsewhere);
+    }
+
+    /**
+     * One more message from {@code partnerId} for {@code userId}; returns the changed counts. The counters
+     * are loaded before the change is queued, since loading lays queued changes on top.
+     */
+    public UnreadCountResponse increment(int userId, int partnerId) {
+        UserCounters counters = countersOf(userId);
+        pending.merge(new CounterKey(userId, partnerId), Change.ADD_ONE, Change::then);
+        return counters.increment(partnerId);
+    }
+
+    /** {@code userId} has read everything from {@code partnerId}; returns the changed counts. */
+    public UnreadCountResponse clear(int userId, int partnerId) {
+        UserCounters counters = countersOf(userId);
+        pending.merge(new CounterKey(userId, partnerId), Change.RESET, Change::then);
+        return counters.clear(partnerId);
+    }
+
+    public UnreadCountResponse getCounts(int userId) {
+        return countersOf(userId).snapshot();
+    }
+
+    @Scheduled(fixedDelayString = "${chat.unread.flush-interval-ms:5000}")
+    public void flush() {
+        Set<Integer> written = new HashSet<>();
+        synchronized (writeLock) {
+            if (!pending.isEmpty()) {
+                Map<CounterKey, Change> drained = new HashMap<>();
+                for (CounterKey key : List.copyOf(pending.keySet())) {
+                    Change change = pending.remove(key);
+                    if (change != null) {
+                        drained.put(key, change);
+                    }
+                }
+                List<Object[]> batch = new ArrayList<>(drained.size());
+                drained.forEach((key, change) -> batch.add(new Object[]{
+                        key.userId(), key.partnerId(), Math.max(0, change.delta()), change.reset(), change.delta()}));
+                try {
+                    jdbcTemplate.batchUpdate(APPLY_CHANGE, batch);
+                } catch (Exception e) {
+                    log.error("Failed to write {} unread counter changes, will retry: {}", batch.size(), e.getMessage());
+                    drained.forEach((key, change) -> pending.merge(key, change, (newer, failed) -> failed.then(newer)));
+                    return;
+                }
+                drained.keySet().forEach(key -> written.add(key.userId()));
+            }
+        }
+        announceWritten(written);
+        countersByUser.keySet().removeIf(userId -> !presenceService.isOnline(userId) && !hasPending(userId));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private UserCounters countersOf(int userId) {
+        return countersByUser.computeIfAbsent(userId, this::load);
+    }
+
+    /** Stored counts with changes that are not written yet laid on top. */
+    private UserCounters load(int userId) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        synchronized (writeLock) {
+            jdbcTemplate.query("SELECT partner_id, unread_count FROM chat_unread_counters WHERE user_id = ? AND unread_count > 0",
+                    resultSet -> {
+                        counts.put(resultSet.getInt(1), resultSet.getInt(2));
+                    },
+                    userId);
+            pending.forEach((key, change) -> {
+                if (key.userId() == userId) {
+                    counts.put(key.partnerId(), change.applyTo(counts.getOrDefault(key.partnerId(), 0)));
+                }
+            });
+        }
+        counts.values().removeIf(count -> count <= 0);
+        return new UserCounters(counts);
+    }
+
+    private void announceWritten(Set<Integer> userIds) {
+        if (userIds.isEmpty() || !clusterBus.isDistributed()) {
+            return;
+        }
+        try {
+            clusterBus.publish(CLUSTER_CHANNEL, objectMapper.writeValueAsString(userIds));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to announce unread counter changes to other instances: {}", e.getMessage());
+        }
+    }
+
+    /** Another instance wrote changes for these users; forget them so the next read loads the table. */
+    private void onWrittenElsewhere(String body) {
+        try {
+            Set<Integer> userIds = objectMapper.readValue(body, new TypeReference<Set<Integer>>() {
+            });
+            countersByUser.keySet().removeAll(userIds);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable unread counter changes from another instance: {}", e.getMessage());
+        }
+    }
+
+    private boolean hasPending(int userId) {
+        return pending.keySet().stream().anyMatch(key -> key.userId() == userId);
+    }
+
+    private record CounterKey(int userId, int partnerId) {
+    }
+
+    private record Change(boolean reset, int delta) {
+        static final Change ADD_ONE = new Change(false, 1);
+        static final Change RESET = new Change(true, 0);
+
+        Change then(Change next) {
+            return next.reset ? next : new Change(reset, delta + next.delta);
+        }
+
+        int applyTo(int count) {
+            return Math.max(0, (reset ? 0 : count) + delta);
+        }
+    }
+
+    private static final class UserCounters {
+        private final Map<Integer, Integer> byPartner;
+        private int total;
+
+        UserCounters(Map<Integer, Integer> byPartner) {
+            this.byPartner = byPartner;
+            this.total = byPartner.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        synchronized UnreadCountResponse increment(int partnerId) {
+            total++;
+            return changed(partnerId, byPartner.merge(partnerId, 1, Integer::sum));
+        }
+
+        synchronized UnreadCountResponse clear(int partnerId) {
+            Integer previous = byPartner.remove(partnerId);
+            if (previous != null) {
+                total -= previous;
+            }
+            return changed(partnerId, 0);
+        }
+
+        synchronized UnreadCountResponse snapshot() {
+            return UnreadCountResponse.builder()
+                    .total(total)
+                    .conversations(new HashMap<>(byPartner))
+                    .build();
+        }
+
+        private UnreadCountResponse changed(int partnerId, int count) {
+            return UnreadCountResponse.builder()
+                    .total(total)
+                    .conversations(Map.of(partnerId, count))
+                    .build();
+        }
+    }
+}
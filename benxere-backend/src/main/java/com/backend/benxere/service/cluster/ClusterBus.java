@@ -0,0 +1,24 @@
+package com.backend.benxere.service.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Fire-and-forget messages between the backend instances of one deployment. Components that keep
+ * state in memory use it to tell their peers about changes; a single instance runs with
+ * {@link LocalClusterBus}, tests wire several application contexts together with
+ * {@link InProcessClusterBus}, and relay deployments use {@link StompRelayClusterBus}.
+ */
+public interface ClusterBus {
+
+    /** Identifies this instance; stable for the lifetime of the application context. */
+    String nodeId();
+
+    /** Whether other instances may be listening. Publishers can skip building messages when not. */
+    boolean isDistributed();
+
+    /** Sends {@code body} to the listeners of {@code channel} on every other instance, never to this one. */
+    void publish(String channel, String body);
+
+    /** Registers a listener for messages other instances publish on {@code channel}. */
+    void subscribe(String channel, Consumer<String> listener);
+}
@@ -0,0 +1,72 @@
+package com.backend.benxere.service.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Connects application contexts running in the same JVM that were created with the same network name,
+ * so multi-node behaviour can be tested without an external broker. Messages are delivered
+ * synchronously on the publishing thread, after being passed as text like any other bus would.
+ */
+@Slf4j
+public class InProcessClusterBus implements ClusterBus, AutoCloseable {
+    private static final Map<String, List<InProcessClusterBus>> NETWORKS = new ConcurrentHashMap<>();
+
+    private final String network;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    public InProcessClusterBus(String network) {
+        this.network = network;
+        NETWORKS.computeIfAbsent(network, name -> new CopyOnWriteArrayList<>()).add(this);
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return true;
+    }
+
+    @Override
+    public void publish(String channel, String body) {
+        for (InProcessClusterBus peer : NETWORKS.getOrDefault(network, List.of())) {
+            if (peer != this) {
+                peer.deliver(channel, body);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, name -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    private void deliver(String channel, String body) {
+        for (Consumer<String> listener : listeners.getOrDefault(channel, List.of())) {
+            try {
+                listener.accept(body);
+            } catch (RuntimeException e) {
+                log.warn("Cluster listener on {} failed in node {}", channel, nodeId, e);
+            }
+        }
+    }
+
+    /** Leaves the network; called when the owning application context closes. */
+    @Override
+    public void close() {
+        NETWORKS.computeIfPresent(network, (name, members) -> {
+            members.remove(this);
+            return members.isEmpty() ? null : members;
+        });
+    }
+}
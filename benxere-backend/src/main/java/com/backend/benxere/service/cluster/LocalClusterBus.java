@@ -0,0 +1,27 @@
+package com.backend.benxere.service.cluster;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/** Bus for a single instance: there is nobody to tell, so messages are dropped. */
+public class LocalClusterBus implements ClusterBus {
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return false;
+    }
+
+    @Override
+    public void publish(String channel, String body) {
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+    }
+}
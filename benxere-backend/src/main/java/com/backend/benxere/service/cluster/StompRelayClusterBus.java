@@ -0,0 +1,190 @@
+package com.backend.benxere.service.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.stomp.ReactorNettyTcpStompClient;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompReactorNettyCodec;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.tcp.reactor.ReactorNettyTcpClient;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Bus over the external STOMP broker the relay already talks to. Each channel is a topic under
+ * {@code destination-prefix}; every instance subscribes with its own system connection and skips the
+ * messages it sent itself. Messages published while the connection is down are dropped, and the
+ * connection is retried every {@code reconnect-delay}.
+ */
+@Slf4j
+public class StompRelayClusterBus implements ClusterBus, AutoCloseable {
+    private static final String NODE_HEADER = "cluster-node";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final String destinationPrefix;
+    private final Duration reconnectDelay;
+    private final StompHeaders connectHeaders = new StompHeaders();
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    private final ReactorNettyTcpStompClient client;
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    private final AtomicBoolean reconnectPending = new AtomicBoolean();
+
+    private volatile StompSession session;
+    private volatile boolean closed;
+
+    public StompRelayClusterBus(String host, int port, String login, String passcode, String virtualHost,
+                                String destinationPrefix, Duration reconnectDelay) {
+        this.destinationPrefix = destinationPrefix;
+        this.reconnectDelay = reconnectDelay;
+        connectHeaders.setLogin(login);
+        connectHeaders.setPasscode(passcode);
+        if (virtualHost != null && !virtualHost.isBlank()) {
+            connectHeaders.setHost(virtualHost);
+        }
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("cluster-bus-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        client = new ReactorNettyTcpStompClient(new ReactorNettyTcpClient<>(host, port, new StompReactorNettyCodec()));
+        client.setMessageConverter(new StringMessageConverter());
+        client.setTaskScheduler(scheduler);
+        connect();
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return true;
+    }
+
+    @Override
+    public void publish(String channel, String body) {
+        StompSession current = session;
+        if (current == null || !current.isConnected()) {
+            log.debug("Cluster bus disconnected, dropping message on {}", channel);
+            return;
+        }
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination(destination(channel));
+        headers.set(NODE_HEADER, nodeId);
+        try {
+            current.send(headers, body);
+        } catch (RuntimeException e) {
+            log.warn("Cluster bus failed to publish on {}: {}", channel, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(String channel, Consumer<String> listener) {
+        boolean firstListener = !listeners.containsKey(channel);
+        listeners.computeIfAbsent(channel, name -> new CopyOnWriteArrayList<>()).add(listener);
+        StompSession current = session;
+        if (firstListener && current != null && current.isConnected()) {
+            subscribeOn(current, channel);
+        }
+    }
+
+    private synchronized void onConnected(StompSession connected) {
+        session = connected;
+        listeners.keySet().forEach(channel -> subscribeOn(connected, channel));
+        log.info("Cluster bus {} connected with {} channels", nodeId, listeners.size());
+    }
+
+    private void subscribeOn(StompSession target, String channel) {
+        target.subscribe(destination(channel), new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                if (!nodeId.equals(headers.getFirst(NODE_HEADER))) {
+                    deliver(channel, (String) payload);
+                }
+            }
+        });
+    }
+
+    private void deliver(String channel, String body) {
+        for (Consumer<String> listener : listeners.getOrDefault(channel, List.of())) {
+            try {
+                listener.accept(body);
+            } catch (RuntimeException e) {
+                log.warn("Cluster listener on {} failed", channel, e);
+            }
+        }
+    }
+
+    private String destination(String channel) {
+        return destinationPrefix + channel;
+    }
+
+    private void connect() {
+        if (!closed) {
+            client.connectAsync(connectHeaders, new SessionHandler());
+        }
+    }
+
+    private void scheduleReconnect() {
+        if (!closed && reconnectPending.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                reconnectPending.set(false);
+                connect();
+            }, scheduler.getClock().instant().plus(reconnectDelay));
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        StompSession current = session;
+        if (current != null && current.isConnected()) {
+            current.disconnect();
+        }
+        client.shutdown();
+        scheduler.shutdown();
+    }
+
+    private class SessionHandler extends StompSessionHandlerAdapter {
+        @Override
+        public void afterConnected(StompSession connected, StompHeaders connectedHeaders) {
+            onConnected(connected);
+        }
+
+        @Override
+        public void handleException(StompSession failed, StompCommand command, StompHeaders headers,
+                                    byte[] payload, Throwable exception) {
+            log.warn("Cluster bus failed to handle a {} frame: {}", command, exception.getMessage());
+        }
+
+        /** Called for failed connects as well as lost connections. */
+        @Override
+        public void handleTransportError(StompSession failed, Throwable exception) {
+            if (closed) {
+                return;
+            }
+            log.warn("Cluster bus connection lost, retrying in {}: {}", reconnectDelay, exception.getMessage());
+            if (session == failed) {
+                session = null;
+            }
+            scheduleReconnect();
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.backend.benxere.exception.ErrorCode;
 import com.backend.benxere.repository.*;
 import com.backend.benxere.service.BookingService;
 import com.backend.benxere.service.CouponService;
+import com.backend.benxere.service.CurrentUserContext;
 import com.backend.benxere.service.EmailService;
 import com.backend.benxere.service.PaymentService;
 import com.backend.benxere.service.qrcode.BookingEmailHelper;
@@ -17,7 +18,6 @@ import com.backend.benxere.service.qrcode.QRCodeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -42,6 +42,7 @@ public class BookingServiceImpl implements BookingService {
     private final EmailService emailService;
     private final BookingEmailHelper bookingEmailHelper;
     private final PaymentService paymentService;
+    private final CurrentUserContext currentUserContext;
     
     public BookingServiceImpl(BookingRepository bookingRepository, 
                              UserRepository userRepository,
@@ -53,7 +54,8 @@ public class BookingServiceImpl implements BookingService {
                              QRCodeService qrCodeService,
                              EmailService emailService,
                              BookingEmailHelper bookingEmailHelper,
-                             @Lazy PaymentService paymentService) {
+                             @Lazy PaymentService paymentService,
+                             CurrentUserContext currentUserContext) {
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.scheduleRepository = scheduleRepository;
@@ -65,6 +67,7 @@ public class BookingServiceImpl implements BookingService {
         this.emailService = emailService;
         this.bookingEmailHelper = bookingEmailHelper;
         this.paymentService = paymentService;
+        this.currentUserContext = currentUserContext;
     }
 
     @Override
@@ -95,7 +98,7 @@ public class BookingServiceImpl implements BookingService {
             seat.setPassengerStatus("CONFIRMED");
             
             try {
-                String qrCodeData = qrCodeService.generateQRCodeForSeat(seat);
+                String qrCodeData = qrCodeService.createSignedPayload(seat);
                 seat.setQrCodeData(qrCodeData);
                 seat.setQrCodeScannedCount(0);
                 
@@ -123,7 +126,7 @@ public class BookingServiceImpl implements BookingService {
                     user.getEmail(),
                     userName,
                     bookingDetailsHtml,
-                    firstSeatQrCode  
+                    firstSeatQrCode != null ? qrCodeService.renderPngBase64(firstSeatQrCode) : null
                 );
                 
                 logger.info("Sent booking confirmation email to user: {}", user.getEmail());
@@ -158,8 +161,7 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = new Booking();
         booking.setSchedule(scheduleRepository.findById(request.getScheduleId())
             .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Schedule not found")));
-        booking.setUser(userRepository.findByEmail(SecurityContextHolder.getContext().getAuthentication().getName())
-            .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED, "User not found")));
+        booking.setUser(currentUserContext.getUser());
         booking.setPickUpLocation(locationRepository.findById(request.getPickUpLocationId())
             .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Pick-up location not found")));
         booking.setDropOffLocation(locationRepository.findById(request.getDropOffLocationId())
@@ -278,7 +280,7 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingResponse> getBookingsByCurrentUser() {
-        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        String userEmail = currentUserContext.getEmail();
         return bookingRepository.getBookingsByUserEmail(userEmail).stream()
             .map(this::mapToBookingResponse)
             .collect(Collectors.toList());
@@ -286,7 +288,7 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingWithPaymentResponse> getBookingsWithPaymentByCurrentUser() {
-        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        String userEmail = currentUserContext.getEmail();
         List<Booking> bookings = bookingRepository.getBookingsByUserEmail(userEmail);
         
         return bookings.stream()
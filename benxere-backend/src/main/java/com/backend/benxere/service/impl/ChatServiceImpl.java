@@ -1,124 +1,146 @@
 package com.backend.benxere.service.impl;
 
 import com.backend.benxere.dto.request.ChatMessageRequest;
+import com.backend.benxere.dto.response.ChatAgentResponse;
 import com.backend.benxere.dto.response.ChatMessageResponse;
 import com.backend.benxere.dto.response.ConversationSummaryResponse;
+import com.backend.benxere.dto.response.UnreadCountResponse;
 import com.backend.benxere.entity.ChatMessage;
 import com.backend.benxere.entity.User;
+import com.backend.benxere.exception.AppException;
+import com.backend.benxere.exception.ErrorCode;
 import com.backend.benxere.repository.ChatMessageRepository;
 import com.backend.benxere.repository.UserRepository;
 import com.backend.benxere.service.ChatService;
+import com.backend.benxere.service.chat.ChatMessageIdAllocator;
+import com.backend.benxere.service.chat.ChatMessageWriter;
+import com.backend.benxere.service.chat.PresenceService;
+import com.backend.benxere.service.chat.ReadReceiptService;
+import com.backend.benxere.service.chat.UnreadCounterService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ChatServiceImpl implements ChatService {
+    private static final int MAX_CACHED_EMAILS = 10000;
 
     private final ChatMessageRepository chatMessageRepository;
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceService presenceService;
+    private final ChatMessageIdAllocator chatMessageIdAllocator;
+    private final ChatMessageWriter chatMessageWriter;
+    private final ReadReceiptService readReceiptService;
+    private final UnreadCounterService unreadCounterService;
+    private final Map<Integer, String> emailsById = new ConcurrentHashMap<>();
 
     @Override
-    @Transactional
     public void sendMessage(ChatMessageRequest chatMessage, Integer senderId) {
-        log.info("Processing message from sender ID: {}", senderId);
-        
         User sender = userRepository.findById(senderId)
-                .orElseThrow(() -> new RuntimeException("Sender not found"));
-        
-        User receiver = userRepository.findById(chatMessage.getReceiverId())
-                .orElseThrow(() -> new RuntimeException("Receiver not found"));
+                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED, "Sender not found"));
+        sendMessage(chatMessage, senderId, sender.getEmail());
+    }
+
+    /**
+     * Assigns the message its id, queues it for the batched write and pushes it to the receiver right
+     * away; the row reaches {@code chat_messages} within the write-behind flush interval. Content the
+     * table cannot hold is refused here, before anyone has seen the message.
+     */
+    @Override
+    public void sendMessage(ChatMessageRequest chatMessage, Integer senderId, String senderEmail) {
+        if (!ChatMessageWriter.isStorable(chatMessage.getContent())) {
+            throw new AppException(ErrorCode.CHAT_MESSAGE_INVALID);
+        }
+        Integer receiverId = chatMessage.getReceiverId();
+        String receiverEmail = emailOf(receiverId);
+        LocalDateTime sentAt = LocalDateTime.now();
+        int messageId = chatMessageIdAllocator.nextId();
+
+        chatMessageWriter.append(new ChatMessageWriter.PendingMessage(messageId, chatMessage.getContent(),
+                senderId, receiverId, sentAt, ChatMessage.conversationKey(senderId, receiverId)));
 
-        ChatMessage message = ChatMessage.builder()
+        ChatMessageResponse response = ChatMessageResponse.builder()
+                .id(messageId)
                 .content(chatMessage.getContent())
-                .sender(sender)
-                .receiver(receiver)
+                .senderId(senderId)
+                .senderEmail(senderEmail)
+                .receiverId(receiverId)
+                .receiverEmail(receiverEmail)
+                .sentAt(sentAt)
                 .isRead(false)
                 .build();
 
-        message = chatMessageRepository.save(message);
-        
-        ChatMessageResponse response = mapToResponse(message);
-        
         try {
-            String destination = "/user/" + receiver.getEmail() + "/queue/messages";
-            log.info("Sending message to destination: {}", destination);
-            messagingTemplate.convertAndSendToUser(
-                    receiver.getEmail(),
-                    "/queue/messages",
-                    response
-            );
-            log.info("Message sent successfully to receiver");
+            messagingTemplate.convertAndSendToUser(receiverEmail, "/queue/messages", response);
         } catch (Exception e) {
             log.error("Failed to send message via WebSocket: {}", e.getMessage(), e);
         }
+        pushUnreadCount(receiverEmail, unreadCounterService.increment(receiverId, senderId));
     }
 
     @Override
     public List<ChatMessageResponse> getChatHistory(Integer currentUserId, Integer otherUserId) {
         log.info("Getting chat history between user {} and user {}", currentUserId, otherUserId);
-        List<ChatMessage> messages = chatMessageRepository.findBySenderIdAndReceiverIdOrReceiverIdAndSenderId(
-                currentUserId, otherUserId, currentUserId, otherUserId);
+        long conversationKey = ChatMessage.conversationKey(currentUserId, otherUserId);
+        List<ChatMessage> messages = chatMessageRepository.findConversation(conversationKey);
         
-        return messages.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(messages, conversationKey);
     }
 
     @Override
     public List<ChatMessageResponse> getUnreadMessages(Integer userId) {
         log.info("Getting unread messages for user ID: {}", userId);
-        List<ChatMessage> unreadMessages = chatMessageRepository.findByReceiverUserIdAndIsReadFalse(userId);
+        readReceiptService.flushReader(userId);
+        List<ChatMessage> unreadMessages = chatMessageRepository.findUnreadByReceiver(userId);
         return unreadMessages.stream()
-                .map(this::mapToResponse)
+                .map(message -> mapToResponse(message, false))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Coalesced in memory; the receiver's read mark reaches the database on the next receipt flush, or
+     * earlier when the receiver lists unread messages, conversations or the conversation's history.
+     */
     @Override
-    @Transactional
-    public void markMessagesAsRead(Integer senderId, Integer receiverId) {
-        log.info("Marking messages as read from sender {} to receiver {}", senderId, receiverId);
-        chatMessageRepository.markMessagesAsRead(senderId, receiverId);
+    public void markMessagesAsRead(Integer senderId, Integer receiverId, Integer lastReadMessageId) {
+        readReceiptService.markRead(receiverId, senderId, lastReadMessageId);
+        pushUnreadCount(emailOf(receiverId), unreadCounterService.clear(receiverId, senderId));
     }
 
     @Override
-    public List<ConversationSummaryResponse> getConversations(Integer userId) {
-        List<Integer> senders = chatMessageRepository.findDistinctSenders(userId);
-        List<Integer> receivers = chatMessageRepository.findDistinctReceivers(userId);
-        Set<Integer> partners = new HashSet<>();
-        partners.addAll(senders);
-        partners.addAll(receivers);
-        partners.remove(userId);
-
-        List<ConversationSummaryResponse> result = new ArrayList<>();
-        for (Integer partnerId : partners) {
-            User partner = userRepository.findById(partnerId)
-                    .orElseThrow(() -> new RuntimeException("User not found: " + partnerId));
-            long unread = chatMessageRepository.countUnreadBySenderAndReceiver(partnerId, userId);
-            List<ChatMessage> lastList = chatMessageRepository.findMessageHistory(userId, partnerId, PageRequest.of(0, 1));
-            String lastMsg = lastList.isEmpty() ? null : lastList.get(0).getContent();
-            LocalDateTime lastTime = lastList.isEmpty() ? null : lastList.get(0).getSentAt();
+    public UnreadCountResponse getUnreadCount(Integer userId) {
+        return unreadCounterService.getCounts(userId);
+    }
 
+    @Override
+    public List<ConversationSummaryResponse> getConversations(Integer userId, int page, int size) {
+        readReceiptService.flushReader(userId);
+        List<Object[]> rows = chatMessageRepository.findConversationSummaries(userId, size, page * size);
+        List<ConversationSummaryResponse> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Integer partnerId = ((Number) row[0]).intValue();
             result.add(ConversationSummaryResponse.builder()
                     .partnerId(partnerId)
-                    .partnerEmail(partner.getEmail())
-                    .unreadCount(unread)
-                    .lastMessage(lastMsg)
-                    .lastMessageTime(lastTime)
+                    .partnerEmail((String) row[1])
+                    .lastMessage((String) row[2])
+                    .lastMessageTime(toLocalDateTime(row[3]))
+                    .lastMessageId(row[4] != null ? ((Number) row[4]).intValue() : null)
+                    .unreadCount(row[5] != null ? ((Number) row[5]).longValue() : 0)
+                    .online(presenceService.isOnline(partnerId))
                     .build());
         }
         return result;
@@ -127,14 +149,72 @@ public class ChatServiceImpl implements ChatService {
     @Override
     public List<ChatMessageResponse> getChatHistory(Integer userId, Integer partnerId, int page, int size) {
         PageRequest pageReq = PageRequest.of(page, size);
-        List<ChatMessage> messages = chatMessageRepository.findMessageHistory(userId, partnerId, pageReq);
-        List<ChatMessageResponse> responses = messages.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
-        return responses;
+        long conversationKey = ChatMessage.conversationKey(userId, partnerId);
+        List<ChatMessage> messages = chatMessageRepository.findLatestInConversation(conversationKey, pageReq);
+        return mapToResponses(messages, conversationKey);
+    }
+
+    @Override
+    public List<ChatMessageResponse> getChatHistoryBefore(Integer userId, Integer partnerId, Integer beforeId, int size) {
+        long conversationKey = ChatMessage.conversationKey(userId, partnerId);
+        List<ChatMessage> messages = chatMessageRepository.findInConversationBefore(
+                conversationKey, beforeId, PageRequest.of(0, size));
+        return mapToResponses(messages, conversationKey);
     }
     
-    private ChatMessageResponse mapToResponse(ChatMessage message) {
+    @Override
+    public ChatAgentResponse assignCustomerCareAgent(Integer busOwnerId) {
+        var agent = presenceService.assignCustomerCareAgent(busOwnerId)
+                .orElseThrow(() -> new AppException(ErrorCode.CHAT_AGENT_UNAVAILABLE));
+        return ChatAgentResponse.builder()
+                .userId(agent.getUserId())
+                .email(agent.getEmail())
+                .fullName(agent.getFullName())
+                .build();
+    }
+
+    private void pushUnreadCount(String email, UnreadCountResponse unreadCount) {
+        try {
+            messagingTemplate.convertAndSendToUser(email, "/queue/unread", unreadCount);
+        } catch (Exception e) {
+            log.error("Failed to push unread count via WebSocket: {}", e.getMessage(), e);
+        }
+    }
+
+    /** Online users are addressed from presence; others are looked up once and remembered. */
+    private String emailOf(Integer userId) {
+        if (userId == null) {
+            throw new AppException(ErrorCode.USER_NOT_EXISTED, "Receiver not found");
+        }
+        return presenceService.emailOf(userId).orElseGet(() -> {
+            if (emailsById.size() >= MAX_CACHED_EMAILS) {
+                emailsById.clear();
+            }
+            return emailsById.computeIfAbsent(userId, id -> userRepository.findById(id)
+                    .map(User::getEmail)
+                    .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED, "Receiver not found")));
+        });
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    /** Read state comes from the two participants' read marks, looked up once per conversation. */
+    private List<ChatMessageResponse> mapToResponses(List<ChatMessage> messages, long conversationKey) {
+        if (messages.isEmpty()) {
+            return new ArrayList<>();
+        }
+        ReadReceiptService.ReadMarks readMarks = readReceiptService.marksFor(conversationKey);
+        return messages.stream()
+                .map(message -> mapToResponse(message, readMarks.isRead(message)))
+                .collect(Collectors.toList());
+    }
+
+    private ChatMessageResponse mapToResponse(ChatMessage message, boolean read) {
         return ChatMessageResponse.builder()
                 .id(message.getId())
                 .content(message.getContent())
@@ -143,7 +223,7 @@ public class ChatServiceImpl implements ChatService {
                 .receiverId(message.getReceiver().getUserId())
                 .receiverEmail(message.getReceiver().getEmail())
                 .sentAt(message.getSentAt())
-                .isRead(message.isRead())
+                .isRead(read)
                 .build();
     }
 }
\ No newline at end of file
@@ -24,9 +24,11 @@ import com.backend.benxere.repository.ScheduleLocationRepository;
 import com.backend.benxere.repository.CustomScheduleRepositoryImpl;
 import com.backend.benxere.service.ScheduleService;
 import com.backend.benxere.service.BusService;
+import com.backend.benxere.service.CurrentUserContext;
+import com.backend.benxere.service.ScheduleChangedEvent;
 import com.backend.benxere.mapper.ScheduleMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,8 +40,13 @@ import java.util.List;
 import java.util.Optional;
 import java.util.ArrayList;
 import java.util.Set;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.HashMap;
 import java.util.Collections;
 import java.sql.Timestamp;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -80,6 +87,12 @@ public class ScheduleServiceImpl implements ScheduleService {
     @Autowired
     private CustomScheduleRepositoryImpl customScheduleRepositoryImpl;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CurrentUserContext currentUserContext;
+
     private void validateScheduleConflicts(Schedule schedule, ScheduleRequest scheduleRequest) {
         LocalDateTime departureTime = scheduleRequest.getDepartureTime();
         LocalDateTime arrivalTime = scheduleRequest.getArrivalTime();
@@ -177,46 +190,54 @@ public class ScheduleServiceImpl implements ScheduleService {
         return (start1.isBefore(end2) && end1.isAfter(start2));
     }
 
+    /**
+     * Syncs the schedule's stops with the requested ids using a fixed number of statements:
+     * one select for existing rows, one for the locations, one bulk delete and one multi-row insert.
+     */
     private void saveLocationDetails(Schedule schedule, List<Integer> pickupLocationIds, List<Integer> dropoffLocationIds) {
-        Timestamp now = new Timestamp(System.currentTimeMillis());
-
-        scheduleLocationRepository.deleteByScheduleScheduleId(schedule.getScheduleId());
-
-        List<ScheduleLocation> scheduleLocations = new ArrayList<>();
-
-        if (pickupLocationIds != null && !pickupLocationIds.isEmpty()) {
-            for (Integer locationId : pickupLocationIds) {
-                Location location = locationRepository.findById(locationId)
-                        .orElseThrow(() -> new AppException(ErrorCode.LOCATION_NOT_FOUND));
-
-                ScheduleLocation scheduleLocation = ScheduleLocation.builder()
-                        .schedule(schedule)
-                        .location(location)
-                        .detail("pickup")
-                        .createdAt(now)
-                        .build();
+        Set<Integer> pickupIds = pickupLocationIds != null ? new LinkedHashSet<>(pickupLocationIds) : Collections.emptySet();
+        Set<Integer> dropoffIds = dropoffLocationIds != null ? new LinkedHashSet<>(dropoffLocationIds) : Collections.emptySet();
+
+        Set<Integer> requestedIds = new HashSet<>(pickupIds);
+        requestedIds.addAll(dropoffIds);
+        Map<Integer, Location> locationsById = locationRepository.findAllById(requestedIds).stream()
+                .collect(Collectors.toMap(Location::getLocationId, Function.identity()));
+        if (locationsById.size() != requestedIds.size()) {
+            throw new AppException(ErrorCode.LOCATION_NOT_FOUND);
+        }
 
-                scheduleLocations.add(scheduleLocation);
+        Map<String, Set<Integer>> requested = Map.of("pickup", pickupIds, "dropoff", dropoffIds);
+        Map<String, Set<Integer>> kept = new HashMap<>();
+        List<Long> staleIds = new ArrayList<>();
+        for (ScheduleLocation existing : scheduleLocationRepository.findByScheduleScheduleId(schedule.getScheduleId())) {
+            int locationId = existing.getLocation().getLocationId();
+            Set<Integer> wanted = requested.getOrDefault(existing.getDetail(), Collections.emptySet());
+            if (wanted.contains(locationId) && kept.computeIfAbsent(existing.getDetail(), detail -> new HashSet<>()).add(locationId)) {
+                continue;
             }
+            staleIds.add(existing.getId());
         }
 
-        if (dropoffLocationIds != null && !dropoffLocationIds.isEmpty()) {
-            for (Integer locationId : dropoffLocationIds) {
-                Location location = locationRepository.findById(locationId)
-                        .orElseThrow(() -> new AppException(ErrorCode.LOCATION_NOT_FOUND));
-
-                ScheduleLocation scheduleLocation = ScheduleLocation.builder()
-                        .schedule(schedule)
-                        .location(location)
-                        .detail("dropoff")
-                        .createdAt(now)
-                        .build();
-
-                scheduleLocations.add(scheduleLocation);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<ScheduleLocation> additions = new ArrayList<>();
+        requested.forEach((detail, ids) -> {
+            Set<Integer> alreadyStored = kept.getOrDefault(detail, Collections.emptySet());
+            for (Integer locationId : ids) {
+                if (!alreadyStored.contains(locationId)) {
+                    additions.add(ScheduleLocation.builder()
+                            .schedule(schedule)
+                            .location(locationsById.get(locationId))
+                            .detail(detail)
+                            .createdAt(now)
+                            .build());
+                }
             }
-        }
+        });
 
-        scheduleLocationRepository.saveAll(scheduleLocations);
+        if (!staleIds.isEmpty()) {
+            scheduleLocationRepository.deleteAllByIdInBatch(staleIds);
+        }
+        scheduleLocationRepository.insertAll(additions);
     }
 
     private void loadLocationsForSchedule(Schedule schedule) {
@@ -290,6 +311,8 @@ public class ScheduleServiceImpl implements ScheduleService {
 
         loadLocationsForSchedule(schedule);
 
+        eventPublisher.publishEvent(new ScheduleChangedEvent(schedule.getScheduleId()));
+
         return scheduleMapper.toResponse(schedule);
     }
 
@@ -358,12 +381,15 @@ public class ScheduleServiceImpl implements ScheduleService {
 
         loadLocationsForSchedule(existingSchedule);
 
+        eventPublisher.publishEvent(new ScheduleChangedEvent(existingSchedule.getScheduleId()));
+
         return scheduleMapper.toResponse(existingSchedule);
     }
 
     @Override
     public void deleteSchedule(int id) {
         scheduleRepository.deleteById(id);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(id));
     }    @Override
     public List<ScheduleResponse> getSchedulesByOriginAndDestinationAndDate(String origin, String destination, LocalDate date) {
         List<Schedule> schedules = customScheduleRepositoryImpl.findByRoute_OriginAndRoute_DestinationAndDepartureTimeBetween(
@@ -382,9 +408,7 @@ public class ScheduleServiceImpl implements ScheduleService {
         return schedules;
     }    @Override
     public List<ScheduleResponse> getScheduleByCurrentDriver() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User driver = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        User driver = currentUserContext.getUser();
 
         List<Schedule> schedules = new ArrayList<>();
         schedules.addAll(scheduleRepository.findAllByDriver(driver));
@@ -397,9 +421,7 @@ public class ScheduleServiceImpl implements ScheduleService {
                 .collect(Collectors.toList());
     }    @Override
     public List<ScheduleResponse> getScheduleByCurrentAssistant() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User assistant = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        User assistant = currentUserContext.getUser();
 
         List<Schedule> schedules = scheduleRepository.findAllByAssistant(assistant);
         schedules.forEach(this::loadLocationsForSchedule);
@@ -13,12 +13,12 @@ import com.backend.benxere.mapper.UserMapper;
 import com.backend.benxere.repository.RoleRepository;
 import com.backend.benxere.repository.UserRepository;
 import com.backend.benxere.service.BusService;
+import com.backend.benxere.service.CurrentUserContext;
 import com.backend.benxere.service.OtpService;
 import com.backend.benxere.service.UserService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -38,6 +38,7 @@ public class UserServiceImpl implements UserService {
     private final RoleRepository roleRepository;
     private final OtpService otpService;
     private final BusService busService;
+    private final CurrentUserContext currentUserContext;
     private final PasswordEncoder passwordEncoder;    @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
@@ -54,9 +55,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new EntityNotFoundException("Current user not found"));
+        return currentUserContext.getUser();
     }
 
     @Override
@@ -84,7 +83,7 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new EntityNotFoundException("User not found with email: " + email));
     }    @Override
     public boolean isCurrentUser(Integer userId) {
-        return getCurrentUser().getUserId() == userId.intValue();
+        return currentUserContext.getUserId() == userId.intValue();
     }
 
     @Override
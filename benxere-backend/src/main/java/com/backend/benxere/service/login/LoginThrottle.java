@@ -0,0 +1,111 @@
+package com.backend.benxere.service.login;
+
+import com.backend.benxere.exception.AppException;
+import com.backend.benxere.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory token buckets limiting login attempts per email and per client IP. A bucket holds
+ * {@code capacity} attempts and refills continuously over {@code refill-period}; buckets that have
+ * refilled completely carry no state and are dropped by the periodic sweep.
+ */
+@Component
+public class LoginThrottle {
+    private final Limiter byEmail;
+    private final Limiter byIp;
+    private final Counter emailRejections;
+    private final Counter ipRejections;
+
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${auth.login.email.capacity:5}") int emailCapacity,
+                         @Value("${auth.login.email.refill-period-seconds:300}") long emailRefillSeconds,
+                         @Value("${auth.login.ip.capacity:30}") int ipCapacity,
+                         @Value("${auth.login.ip.refill-period-seconds:60}") long ipRefillSeconds) {
+        this.byEmail = new Limiter(emailCapacity, TimeUnit.SECONDS.toNanos(emailRefillSeconds));
+        this.byIp = new Limiter(ipCapacity, TimeUnit.SECONDS.toNanos(ipRefillSeconds));
+        this.emailRejections = Counter.builder("auth.login.rejected").tag("reason", "email_throttled").register(meterRegistry);
+        this.ipRejections = Counter.builder("auth.login.rejected").tag("reason", "ip_throttled").register(meterRegistry);
+    }
+
+    /**
+     * Takes one attempt from both buckets or throws {@link ErrorCode#LOGIN_RATE_LIMITED}.
+     * The IP bucket is checked first so a single client cannot drain other users' email buckets.
+     */
+    public void acquire(String email, String clientIp) {
+        long now = System.nanoTime();
+        if (clientIp != null && !byIp.tryAcquire(clientIp, now)) {
+            ipRejections.increment();
+            throw new AppException(ErrorCode.LOGIN_RATE_LIMITED);
+        }
+        if (email != null && !byEmail.tryAcquire(email.trim().toLowerCase(Locale.ROOT), now)) {
+            emailRejections.increment();
+            throw new AppException(ErrorCode.LOGIN_RATE_LIMITED);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.login.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        byEmail.sweep(now);
+        byIp.sweep(now);
+    }
+
+    private static final class Limiter {
+        private final int capacity;
+        private final long nanosPerToken;
+        private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+        Limiter(int capacity, long refillPeriodNanos) {
+            this.capacity = capacity;
+            this.nanosPerToken = Math.max(1, refillPeriodNanos / Math.max(1, capacity));
+        }
+
+        boolean tryAcquire(String key, long now) {
+            return buckets.computeIfAbsent(key, k -> new Bucket(capacity, now)).tryAcquire(now, capacity, nanosPerToken);
+        }
+
+        void sweep(long now) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now, capacity, nanosPerToken));
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.updatedAt = now;
+        }
+
+        synchronized boolean tryAcquire(long now, int capacity, long nanosPerToken) {
+            refill(now, capacity, nanosPerToken);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized boolean isFull(long now, int capacity, long nanosPerToken) {
+            refill(now, capacity, nanosPerToken);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now, int capacity, long nanosPerToken) {
+            if (now > updatedAt) {
+                tokens = Math.min(capacity, tokens + (double) (now - updatedAt) / nanosPerToken);
+                updatedAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.backend.benxere.service.login;
+
+import com.backend.benxere.exception.AppException;
+import com.backend.benxere.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hash checks on a small, bounded pool instead of the request thread. At most
+ * {@code pool-size} hashes run at once; when the queue behind them is full the attempt is refused
+ * with {@link ErrorCode#AUTH_SERVICE_BUSY} rather than tying up more request threads.
+ */
+@Component
+@Slf4j
+public class PasswordVerifier {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final Timer hashTimer;
+    private final Counter busyRejections;
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            MeterRegistry meterRegistry,
+                            @Value("${auth.password.pool-size:0}") int poolSize,
+                            @Value("${auth.password.queue-capacity:64}") int queueCapacity,
+                            @Value("${auth.password.timeout-ms:5000}") long timeoutMillis) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMillis = timeoutMillis;
+
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-verify-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent verifying password hashes")
+                .register(meterRegistry);
+        this.busyRejections = Counter.builder("auth.login.rejected").tag("reason", "busy").register(meterRegistry);
+        meterRegistry.gauge("auth.password.queue.size", executor, pool -> pool.getQueue().size());
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> hashTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+        } catch (RejectedExecutionException e) {
+            busyRejections.increment();
+            throw new AppException(ErrorCode.AUTH_SERVICE_BUSY);
+        }
+
+        try {
+            return Boolean.TRUE.equals(result.get(timeoutMillis, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            busyRejections.increment();
+            throw new AppException(ErrorCode.AUTH_SERVICE_BUSY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new AppException(ErrorCode.AUTH_SERVICE_BUSY);
+        } catch (ExecutionException e) {
+            log.error("Password verification failed", e.getCause());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,78 @@
+package com.backend.benxere.service.qrcode;
+
+import com.backend.benxere.entity.Seat;
+import com.backend.benxere.repository.SeatRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One-off upgrade of seats booked before tickets were stored as signed payloads: their base64 PNG is
+ * replaced with a freshly issued payload, a batch per transaction, once at startup. The old image keeps
+ * verifying since its signature is still valid. Running it again, or on several instances at once, only
+ * re-issues tickets that are equally valid.
+ */
+@Component
+@Slf4j
+public class LegacySeatQRCodeUpgrade {
+    private final SeatRepository seatRepository;
+    private final QRCodeService qrCodeService;
+    private final TransactionTemplate transaction;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public LegacySeatQRCodeUpgrade(SeatRepository seatRepository,
+                                   QRCodeService qrCodeService,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${qrcode.legacy-upgrade.enabled:true}") boolean enabled,
+                                   @Value("${qrcode.legacy-upgrade.batch-size:200}") int batchSize) {
+        this.seatRepository = seatRepository;
+        this.qrCodeService = qrCodeService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            upgrade();
+        }
+    }
+
+    /** Returns how many seats were given a signed payload. */
+    public int upgrade() {
+        AtomicInteger upgraded = new AtomicInteger();
+        int afterSeatId = 0;
+        while (true) {
+            int from = afterSeatId;
+            Integer last = transaction.execute(status -> {
+                List<Seat> seats = seatRepository.findLegacyQRCodeSeatsAfter(from, TicketToken.ENCODED_LENGTH,
+                        PageRequest.of(0, batchSize));
+                for (Seat seat : seats) {
+                    if (!qrCodeService.isSignedPayload(seat.getQrCodeData())) {
+                        seat.setQrCodeData(qrCodeService.createSignedPayload(seat));
+                        upgraded.incrementAndGet();
+                    }
+                }
+                return seats.isEmpty() ? null : seats.get(seats.size() - 1).getSeatId();
+            });
+            if (last == null) {
+                break;
+            }
+            afterSeatId = last;
+        }
+        if (upgraded.get() > 0) {
+            log.info("Issued signed QR payloads for {} seats that still held a legacy image", upgraded.get());
+        }
+        return upgraded.get();
+    }
+}
@@ -0,0 +1,68 @@
+package com.backend.benxere.service.qrcode;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Rendered QR PNGs keyed by the signed payload they encode, evicted least-recently-used once their
+ * total size exceeds {@code qrcode.image-cache.max-bytes}. Because the key is the payload itself, a
+ * re-issued ticket never serves a stale image.
+ */
+@Component
+public class QRCodeImageCache implements MeterBinder {
+    private final long maxBytes;
+    private final LinkedHashMap<String, byte[]> images = new LinkedHashMap<>(256, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long totalBytes;
+
+    public QRCodeImageCache(@Value("${qrcode.image-cache.max-bytes:16777216}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Rendering happens outside the lock, so two concurrent misses for one payload may both render. */
+    public byte[] get(String payload, Function<String, byte[]> renderer) {
+        synchronized (this) {
+            byte[] cached = images.get(payload);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        byte[] rendered = renderer.apply(payload);
+        put(payload, rendered);
+        return rendered;
+    }
+
+    private synchronized void put(String payload, byte[] image) {
+        byte[] previous = images.put(payload, image);
+        totalBytes += image.length - (previous != null ? previous.length : 0);
+        Iterator<Map.Entry<String, byte[]>> eldest = images.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    private synchronized long bytes() {
+        return totalBytes;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("qrcode.image.cache.bytes", this, QRCodeImageCache::bytes).register(registry);
+        FunctionCounter.builder("qrcode.image.cache.hits", hits, LongAdder::doubleValue).register(registry);
+        FunctionCounter.builder("qrcode.image.cache.misses", misses, LongAdder::doubleValue).register(registry);
+    }
+}
@@ -10,8 +10,8 @@ import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Mac;
@@ -20,59 +20,96 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.EnumMap;
 import java.util.Map;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class QRCodeService {
 
     private static final String HMAC_ALGORITHM = "HmacSHA256";
     private static final String SECRET_KEY = "Benxeso_QRCode_Secret_4c15f254-3681-4e54-9d68-27b816c8560d";
     private static final int QR_CODE_SIZE = 250;
+
+    /** {@link Mac} is not thread-safe and costly to set up, so each thread keeps one initialised instance. */
+    private static final ThreadLocal<Mac> HMAC = ThreadLocal.withInitial(() -> {
+        try {
+            Mac hmac = Mac.getInstance(HMAC_ALGORITHM);
+            hmac.init(new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            return hmac;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Cannot initialise " + HMAC_ALGORITHM, e);
+        }
+    });
+
+    private final QRCodeImageCache qrCodeImageCache;
+    private final ErrorCorrectionLevel errorCorrectionLevel;
+
+    public QRCodeService(QRCodeImageCache qrCodeImageCache,
+                         @Value("${qrcode.error-correction-level:M}") ErrorCorrectionLevel errorCorrectionLevel) {
+        this.qrCodeImageCache = qrCodeImageCache;
+        this.errorCorrectionLevel = errorCorrectionLevel;
+    }
     
 
-    public String generateQRCodeForSeat(Seat seat) {
+    /**
+     * The signed ticket payload stored on the seat. Images are rendered from it on demand by
+     * {@link #renderPng(String)}, so seats never carry PNG data.
+     */
+    public String createSignedPayload(Seat seat) {
         try {
-            String qrCodeContent = createQRCodeContent(seat);
-            return generateQRCodeImage(qrCodeContent);
+            return createQRCodeContent(seat);
         } catch (Exception e) {
             throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION, "Error generating QR code: " + e.getMessage());
         }
     }
+
+    /**
+     * Either a compact {@link TicketToken} or the older signed JSON string. Seats booked before payloads
+     * were stored hold a base64 PNG instead, which is neither.
+     */
+    public boolean isSignedPayload(String qrCodeData) {
+        return qrCodeData != null && (TicketToken.looksLikeToken(qrCodeData) || qrCodeData.indexOf('|') > 0);
+    }
+
+    public byte[] renderPng(String content) {
+        return qrCodeImageCache.get(content, this::generateQRCodeImage);
+    }
+
+    public String renderPngBase64(String content) {
+        return Base64.getEncoder().encodeToString(renderPng(content));
+    }
     
 
-    private String createQRCodeContent(Seat seat) throws NoSuchAlgorithmException, InvalidKeyException {
-        String payload = String.format(
-            "{\"seatId\":%d,\"scheduleId\":%d,\"seatNumber\":\"%s\",\"timestamp\":\"%s\"}",
-            seat.getSeatId(),
-            seat.getSchedule().getScheduleId(),
-            seat.getSeatNumber(),
-            LocalDateTime.now().toString()
-        );
-        
-        String signature = generateHmac(payload);
-        
-        return payload + "|" + signature;
+    private String createQRCodeContent(Seat seat) {
+        TicketToken ticket = new TicketToken(seat.getSeatId(), seat.getSchedule().getScheduleId(), Instant.now());
+        byte[] body = ticket.body();
+        byte[] token = Arrays.copyOf(body, TicketToken.BODY_LENGTH + TicketToken.MAC_LENGTH);
+        System.arraycopy(truncatedMac(body), 0, token, TicketToken.BODY_LENGTH, TicketToken.MAC_LENGTH);
+        return TicketToken.encode(token);
     }
     
 
-    private String generateQRCodeImage(String content) throws WriterException, IOException {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
-        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-        hints.put(EncodeHintType.MARGIN, 2);
-        
-        BitMatrix bitMatrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, QR_CODE_SIZE, QR_CODE_SIZE, hints);
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
-        
-        return Base64.getEncoder().encodeToString(outputStream.toByteArray());
+    private byte[] generateQRCodeImage(String content) {
+        try {
+            QRCodeWriter qrCodeWriter = new QRCodeWriter();
+            Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+            hints.put(EncodeHintType.ERROR_CORRECTION, errorCorrectionLevel);
+            hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+            hints.put(EncodeHintType.MARGIN, 2);
+            
+            BitMatrix bitMatrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, QR_CODE_SIZE, QR_CODE_SIZE, hints);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
+            return outputStream.toByteArray();
+        } catch (WriterException | IOException e) {
+            throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION, "Error generating QR code: " + e.getMessage());
+        }
     }
     
  
@@ -81,6 +118,9 @@ public class QRCodeService {
             log.debug("Raw QR content to verify: {}", qrCodeContent);
             qrCodeContent = cleanQrCodeContent(qrCodeContent);
             log.debug("Cleaned QR content: {}", qrCodeContent);
+            if (TicketToken.looksLikeToken(qrCodeContent)) {
+                return verifyTicketToken(qrCodeContent).seatId();
+            }
             
             String[] parts = qrCodeContent.split("\\|");
             if (parts.length != 2) {
@@ -119,6 +159,20 @@ public class QRCodeService {
         }
     }
 
+    private TicketToken verifyTicketToken(String encoded) {
+        byte[] token = TicketToken.decode(encoded);
+        byte[] body = Arrays.copyOf(token, TicketToken.BODY_LENGTH);
+        byte[] providedMac = Arrays.copyOfRange(token, TicketToken.BODY_LENGTH, token.length);
+        if (!MessageDigest.isEqual(truncatedMac(body), providedMac)) {
+            throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION, "Invalid QR code signature");
+        }
+        return TicketToken.fromBody(body);
+    }
+
+    private static byte[] truncatedMac(byte[] body) {
+        return Arrays.copyOf(HMAC.get().doFinal(body), TicketToken.MAC_LENGTH);
+    }
+
    
     private String cleanQrCodeContent(String content) {
         if (content == null) {
@@ -138,11 +192,9 @@ public class QRCodeService {
     }
     
   
-    private String generateHmac(String data) throws NoSuchAlgorithmException, InvalidKeyException {
-        Mac hmac = Mac.getInstance(HMAC_ALGORITHM);
-        SecretKeySpec secretKey = new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
-        hmac.init(secretKey);
-        byte[] hmacBytes = hmac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    /** Signature of the older JSON payloads, still accepted for tickets issued before {@link TicketToken}. */
+    private String generateHmac(String data) {
+        byte[] hmacBytes = HMAC.get().doFinal(data.getBytes(StandardCharsets.UTF_8));
         return Base64.getEncoder().encodeToString(hmacBytes);
     }
 }
\ No newline at end of file
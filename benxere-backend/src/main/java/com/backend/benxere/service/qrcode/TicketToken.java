@@ -0,0 +1,93 @@
+package com.backend.benxere.service.qrcode;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Compact binary ticket printed in seat QR codes: version, seat id, schedule id and issue time (epoch
+ * seconds) packed into 13 bytes, followed by a truncated HMAC-SHA256, then base32-encoded without
+ * padding. The 37 resulting characters are all in the QR alphanumeric set, which fits a version 2
+ * symbol at error-correction level M, instead of the version 10+ symbol the JSON payload needed at H.
+ */
+record TicketToken(int seatId, int scheduleId, Instant issuedAt) {
+    static final byte VERSION = 1;
+    static final int BODY_LENGTH = 13;
+    static final int MAC_LENGTH = 10;
+    static final int ENCODED_LENGTH = ((BODY_LENGTH + MAC_LENGTH) * 8 + 4) / 5;
+
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567".toCharArray();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = i;
+        }
+    }
+
+    byte[] body() {
+        return ByteBuffer.allocate(BODY_LENGTH)
+                .put(VERSION)
+                .putInt(seatId)
+                .putInt(scheduleId)
+                .putInt((int) issuedAt.getEpochSecond())
+                .array();
+    }
+
+    /** Reads the body of a decoded token; the caller has already checked its MAC. */
+    static TicketToken fromBody(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, BODY_LENGTH);
+        if (buffer.get() != VERSION) {
+            throw new IllegalArgumentException("Unsupported ticket version");
+        }
+        return new TicketToken(buffer.getInt(), buffer.getInt(), Instant.ofEpochSecond(Integer.toUnsignedLong(buffer.getInt())));
+    }
+
+    static boolean looksLikeToken(String content) {
+        if (content.length() != ENCODED_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c >= DECODE.length || DECODE[c] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String encode(byte[] bytes) {
+        StringBuilder encoded = new StringBuilder(ENCODED_LENGTH);
+        int buffer = 0;
+        int bits = 0;
+        for (byte b : bytes) {
+            buffer = (buffer << 8) | (b & 0xff);
+            bits += 8;
+            while (bits >= 5) {
+                encoded.append(ALPHABET[(buffer >>> (bits - 5)) & 31]);
+                bits -= 5;
+            }
+        }
+        if (bits > 0) {
+            encoded.append(ALPHABET[(buffer << (5 - bits)) & 31]);
+        }
+        return encoded.toString();
+    }
+
+    static byte[] decode(String encoded) {
+        byte[] bytes = new byte[encoded.length() * 5 / 8];
+        int buffer = 0;
+        int bits = 0;
+        int index = 0;
+        for (int i = 0; i < encoded.length(); i++) {
+            buffer = (buffer << 5) | DECODE[encoded.charAt(i)];
+            bits += 5;
+            if (bits >= 8) {
+                bytes[index++] = (byte) (buffer >>> (bits - 8));
+                bits -= 8;
+            }
+        }
+        return bytes;
+    }
+}
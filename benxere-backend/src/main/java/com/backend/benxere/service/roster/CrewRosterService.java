@@ -0,0 +1,204 @@
+package com.backend.benxere.service.roster;
+
+import com.backend.benxere.dto.response.CrewScheduleSummaryResponse;
+import com.backend.benxere.entity.Schedule;
+import com.backend.benxere.entity.User;
+import com.backend.benxere.repository.ScheduleRepository;
+import com.backend.benxere.service.ScheduleChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Today's crew roster: for every driver, second driver and assistant, the schedules they work that
+ * run at any point today, held in memory so the crew home screens never query by user. Rebuilt at
+ * midnight (or on the first read of a new day) and patched from {@link ScheduleChangedEvent} once a
+ * schedule change has committed, the same way the route graph is.
+ */
+@Service
+@Slf4j
+public class CrewRosterService {
+
+    private static final Comparator<CrewScheduleSummaryResponse> BY_DEPARTURE =
+            Comparator.comparing(CrewScheduleSummaryResponse::getDepartureTime)
+                    .thenComparingInt(CrewScheduleSummaryResponse::getScheduleId);
+
+    private final ScheduleRepository scheduleRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Object rebuildLock = new Object();
+
+    private final Map<Integer, Shift> shiftsByScheduleId = new HashMap<>();
+    /** Changes that landed while a rebuild was loading; replayed over its result. Guarded by {@code this}. */
+    private Map<Integer, Optional<Shift>> changedDuringRebuild;
+    private volatile Roster roster = Roster.EMPTY;
+
+    public CrewRosterService(ScheduleRepository scheduleRepository, PlatformTransactionManager transactionManager) {
+        this.scheduleRepository = scheduleRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Loads the day outside the roster's lock; schedule changes that commit meanwhile are recorded and
+     * replayed over the loaded day, so none is lost to the rebuild.
+     */
+    @Scheduled(cron = "${crew-roster.rebuild-cron:0 0 0 * * *}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            LocalDate day = LocalDate.now();
+            synchronized (this) {
+                changedDuringRebuild = new HashMap<>();
+            }
+            List<Shift> shifts;
+            try {
+                shifts = readOnlyTransaction.execute(status -> scheduleRepository
+                        .findCrewSchedulesRunningBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay()).stream()
+                        .map(Shift::of)
+                        .collect(Collectors.toList()));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    changedDuringRebuild = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                shiftsByScheduleId.clear();
+                shifts.forEach(shift -> shiftsByScheduleId.put(shift.scheduleId(), shift));
+                changedDuringRebuild.forEach((scheduleId, shift) -> {
+                    shiftsByScheduleId.remove(scheduleId);
+                    shift.filter(changed -> changed.runsOn(day))
+                            .ifPresent(changed -> shiftsByScheduleId.put(scheduleId, changed));
+                });
+                changedDuringRebuild = null;
+                roster = Roster.build(day, shiftsByScheduleId.values());
+                log.info("Crew roster for {} built with {} schedules for {} crew members", day,
+                        shiftsByScheduleId.size(), roster.byUser.size());
+            }
+        }
+    }
+
+    /**
+     * Reloads the schedule once its transaction has committed, in a transaction of its own because the
+     * committed one may still be bound to this thread. Deleted and cancelled schedules leave the roster.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        Shift current = readOnlyTransaction.execute(status -> scheduleRepository.findById(event.scheduleId())
+                .filter(schedule -> !"CANCELLED".equals(schedule.getStatus()))
+                .map(Shift::of)
+                .orElse(null));
+        replace(event.scheduleId(), current);
+    }
+
+    private synchronized void replace(int scheduleId, Shift changed) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.put(scheduleId, Optional.ofNullable(changed));
+        }
+        Shift previous = shiftsByScheduleId.remove(scheduleId);
+        Shift current = changed != null && changed.runsOn(roster.day) ? changed : null;
+        if (current != null) {
+            shiftsByScheduleId.put(scheduleId, current);
+        }
+        if (previous != null || current != null) {
+            roster = Roster.build(roster.day, shiftsByScheduleId.values());
+        }
+    }
+
+    /** Schedules of {@code userId} that are under way or still to depart today, earliest first. */
+    public List<CrewScheduleSummaryResponse> todayFor(int userId) {
+        Roster current = roster;
+        if (!current.day.equals(LocalDate.now())) {
+            rebuild();
+            current = roster;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return current.byUser.getOrDefault(userId, Collections.emptyList()).stream()
+                .filter(summary -> !summary.getArrivalTime().isBefore(now))
+                .collect(Collectors.toList());
+    }
+
+    /** One schedule with the crew it appears under; built while the entity's associations are loaded. */
+    private record Shift(int scheduleId, Integer driverId, Integer secondDriverId, Integer assistantId,
+                         CrewScheduleSummaryResponse summary) {
+        static Shift of(Schedule schedule) {
+            String origin = schedule.getRoute() != null ? schedule.getRoute().getOrigin() : null;
+            String destination = schedule.getRoute() != null ? schedule.getRoute().getDestination() : null;
+            CrewScheduleSummaryResponse summary = CrewScheduleSummaryResponse.builder()
+                    .scheduleId(schedule.getScheduleId())
+                    .routeName(origin + " - " + destination)
+                    .origin(origin)
+                    .destination(destination)
+                    .busNumber(schedule.getBus() != null ? schedule.getBus().getBusNumber() : null)
+                    .departureTime(schedule.getDepartureTime())
+                    .arrivalTime(schedule.getArrivalTime())
+                    .status(schedule.getStatus())
+                    .build();
+            return new Shift(schedule.getScheduleId(), idOf(schedule.getDriver()), idOf(schedule.getSecondDriver()),
+                    idOf(schedule.getAssistant()), summary);
+        }
+
+        boolean runsOn(LocalDate day) {
+            LocalDateTime departure = summary.getDepartureTime();
+            LocalDateTime arrival = summary.getArrivalTime();
+            return departure != null && arrival != null
+                    && departure.isBefore(day.plusDays(1).atStartOfDay())
+                    && !arrival.isBefore(day.atStartOfDay());
+        }
+
+        private static Integer idOf(User user) {
+            return user != null ? user.getUserId() : null;
+        }
+    }
+
+    private record Roster(LocalDate day, Map<Integer, List<CrewScheduleSummaryResponse>> byUser) {
+        static final Roster EMPTY = new Roster(LocalDate.MIN, Collections.emptyMap());
+
+        static Roster build(LocalDate day, Collection<Shift> shifts) {
+            Map<Integer, List<CrewScheduleSummaryResponse>> byUser = new HashMap<>();
+            for (Shift shift : shifts) {
+                add(byUser, shift.driverId(), shift.summary(), "DRIVER");
+                add(byUser, shift.secondDriverId(), shift.summary(), "SECOND_DRIVER");
+                add(byUser, shift.assistantId(), shift.summary(), "ASSISTANT");
+            }
+            byUser.replaceAll((userId, summaries) -> {
+                summaries.sort(BY_DEPARTURE);
+                return Collections.unmodifiableList(summaries);
+            });
+            return new Roster(day, byUser);
+        }
+
+        private static void add(Map<Integer, List<CrewScheduleSummaryResponse>> byUser, Integer userId,
+                                CrewScheduleSummaryResponse summary, String crewRole) {
+            if (userId == null) {
+                return;
+            }
+            CrewScheduleSummaryResponse entry = summary.toBuilder().crewRole(crewRole).build();
+            byUser.computeIfAbsent(userId, id -> new ArrayList<>()).add(entry);
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.backend.benxere.service.routing;
+
+import com.backend.benxere.dto.response.ItineraryLegResponse;
+import com.backend.benxere.dto.response.TripItineraryResponse;
+import com.backend.benxere.entity.Route;
+import com.backend.benxere.entity.Schedule;
+import com.backend.benxere.repository.RouteRepository;
+import com.backend.benxere.repository.ScheduleRepository;
+import com.backend.benxere.service.ScheduleChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Time-dependent graph of bookable trips. Stops are route origin/destination codes and every
+ * upcoming {@code SCHEDULED} schedule is an edge that can only be taken at its departure time.
+ * The graph is rebuilt periodically and patched in place once a schedule change has committed.
+ */
+@Service
+@Slf4j
+public class RouteGraphService {
+
+    private static final String BOOKABLE_STATUS = "SCHEDULED";
+    private static final Comparator<Leg> BY_DEPARTURE = Comparator.comparing(Leg::departureTime)
+            .thenComparingInt(Leg::scheduleId);
+
+    private final ScheduleRepository scheduleRepository;
+    private final RouteRepository routeRepository;
+    private final int horizonDays;
+    private final int maxLegs;
+    private final Duration maxLayover;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Object rebuildLock = new Object();
+
+    private final Map<Integer, Leg> legsById = new HashMap<>();
+    /** Changes that landed while a rebuild was loading; replayed over its result. Guarded by {@code this}. */
+    private Map<Integer, Optional<Leg>> changedDuringRebuild;
+    private volatile Graph graph = Graph.EMPTY;
+    private volatile LocalDateTime horizonEnd = LocalDateTime.MIN;
+
+    public RouteGraphService(ScheduleRepository scheduleRepository,
+                             RouteRepository routeRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${route-graph.horizon-days:14}") int horizonDays,
+                             @Value("${route-graph.max-legs:3}") int maxLegs,
+                             @Value("${route-graph.max-layover-hours:24}") int maxLayoverHours) {
+        this.scheduleRepository = scheduleRepository;
+        this.routeRepository = routeRepository;
+        this.horizonDays = horizonDays;
+        this.maxLegs = maxLegs;
+        this.maxLayover = Duration.ofHours(maxLayoverHours);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Full rebuild drops departed trips and slides the horizon forward; schedule edits in between
+     * are applied incrementally through {@link #onScheduleChanged(ScheduleChangedEvent)}.
+     */
+    @Scheduled(cron = "${route-graph.rebuild-cron:0 5 * * * *}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime end = now.plusDays(horizonDays);
+            synchronized (this) {
+                changedDuringRebuild = new HashMap<>();
+            }
+            List<Leg> legs;
+            List<Route> routes;
+            try {
+                legs = readOnlyTransaction.execute(status -> scheduleRepository
+                        .findBookableSchedulesDepartingBetween(now, end).stream()
+                        .map(Leg::of)
+                        .collect(Collectors.toList()));
+                routes = readOnlyTransaction.execute(status -> routeRepository.findAll());
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    changedDuringRebuild = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                legsById.clear();
+                legs.forEach(leg -> legsById.put(leg.scheduleId(), leg));
+                changedDuringRebuild.forEach((scheduleId, leg) -> {
+                    legsById.remove(scheduleId);
+                    leg.filter(changed -> !changed.departureTime().isAfter(end))
+                            .ifPresent(changed -> legsById.put(scheduleId, changed));
+                });
+                changedDuringRebuild = null;
+                graph = Graph.build(legsById.values(), routes);
+                horizonEnd = end;
+                log.info("Route graph rebuilt with {} trips across {} stops", legsById.size(), graph.departures.size());
+            }
+        }
+    }
+
+    /**
+     * Reloads the schedule once its transaction has committed, in a transaction of its own because the
+     * committed one may still be bound to this thread. Changes made outside a transaction arrive
+     * straight away.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        Leg current = readOnlyTransaction.execute(status -> scheduleRepository.findById(event.scheduleId())
+                .filter(RouteGraphService::isBookable)
+                .map(Leg::of)
+                .orElse(null));
+        replace(event.scheduleId(), current);
+    }
+
+    private static boolean isBookable(Schedule schedule) {
+        return BOOKABLE_STATUS.equals(schedule.getStatus())
+                && schedule.getRoute() != null
+                && schedule.getDepartureTime() != null
+                && schedule.getDepartureTime().isAfter(LocalDateTime.now());
+    }
+
+    private synchronized void replace(int scheduleId, Leg changed) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.put(scheduleId, Optional.ofNullable(changed));
+        }
+        Leg previous = legsById.remove(scheduleId);
+        Leg current = changed != null && !changed.departureTime().isAfter(horizonEnd) ? changed : null;
+        if (current != null) {
+            legsById.put(scheduleId, current);
+        }
+        if (previous != null || current != null) {
+            graph = graph.replace(previous, current);
+        }
+    }
+
+    /**
+     * Earliest-arrival itineraries from {@code origin} to {@code destination} departing on {@code date}.
+     * Every departure from the origin that day seeds one search, so the caller sees the direct trips
+     * and the best connection behind each of them; dominated itineraries are dropped.
+     */
+    @Transactional(readOnly = true)
+    public List<TripItineraryResponse> findItineraries(String origin, String destination, LocalDate date,
+                                                       Duration minTransfer, int limit) {
+        if (origin == null || destination == null || origin.equals(destination)) {
+            return Collections.emptyList();
+        }
+
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+        Graph searchGraph = graphCovering(dayStart, dayEnd.plus(maxLayover.multipliedBy(maxLegs)));
+        Set<String> canReachDestination = searchGraph.stopsReaching(destination);
+        if (!canReachDestination.contains(origin)) {
+            return Collections.emptyList();
+        }
+
+        Map<List<Integer>, List<Leg>> unique = new LinkedHashMap<>();
+        Leg[] firstLegs = searchGraph.departures.getOrDefault(origin, Graph.NO_LEGS);
+        for (int i = searchGraph.firstDepartureAtOrAfter(origin, dayStart); i < firstLegs.length; i++) {
+            Leg first = firstLegs[i];
+            if (!first.departureTime().isBefore(dayEnd)) {
+                break;
+            }
+            if (!canReachDestination.contains(first.destination())) {
+                continue;
+            }
+            List<Leg> path = earliestArrival(searchGraph, first, origin, destination, minTransfer, canReachDestination);
+            if (path != null) {
+                unique.putIfAbsent(path.stream().map(Leg::scheduleId).collect(Collectors.toList()), path);
+            }
+        }
+
+        return dropDominated(unique.values()).stream()
+                .sorted(Comparator.comparing((List<Leg> path) -> arrival(path))
+                        .thenComparing(path -> departure(path), Comparator.reverseOrder())
+                        .thenComparingInt(List::size))
+                .limit(limit)
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    private List<Leg> earliestArrival(Graph searchGraph, Leg first, String origin, String destination,
+                                      Duration minTransfer, Set<String> canReachDestination) {
+        Map<String, Leg> arrivedBy = new HashMap<>();
+        Map<String, Integer> legCount = new HashMap<>();
+        PriorityQueue<Leg> queue = new PriorityQueue<>(Comparator.comparing(Leg::arrivalTime));
+
+        arrivedBy.put(first.destination(), first);
+        legCount.put(first.destination(), 1);
+        queue.add(first);
+
+        while (!queue.isEmpty()) {
+            Leg reached = queue.poll();
+            String stop = reached.destination();
+            if (arrivedBy.get(stop) != reached) {
+                continue;
+            }
+            if (stop.equals(destination)) {
+                return backtrack(arrivedBy, destination, origin);
+            }
+            int legs = legCount.get(stop);
+            if (legs >= maxLegs) {
+                continue;
+            }
+
+            LocalDateTime readyAt = reached.arrivalTime().plus(minTransfer);
+            LocalDateTime latestDeparture = reached.arrivalTime().plus(maxLayover);
+            Leg[] outgoing = searchGraph.departures.getOrDefault(stop, Graph.NO_LEGS);
+            for (int i = searchGraph.firstDepartureAtOrAfter(stop, readyAt); i < outgoing.length; i++) {
+                Leg next = outgoing[i];
+                if (next.departureTime().isAfter(latestDeparture)) {
+                    break;
+                }
+                String nextStop = next.destination();
+                if (nextStop.equals(origin) || !canReachDestination.contains(nextStop)) {
+                    continue;
+                }
+                Leg best = arrivedBy.get(nextStop);
+                if (best == null || next.arrivalTime().isBefore(best.arrivalTime())) {
+                    arrivedBy.put(nextStop, next);
+                    legCount.put(nextStop, legs + 1);
+                    queue.add(next);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<Leg> backtrack(Map<String, Leg> arrivedBy, String destination, String origin) {
+        Deque<Leg> path = new ArrayDeque<>();
+        String stop = destination;
+        while (!stop.equals(origin)) {
+            Leg leg = arrivedBy.get(stop);
+            path.addFirst(leg);
+            stop = leg.origin();
+            if (path.size() > arrivedBy.size()) {
+                return null;
+            }
+        }
+        return new ArrayList<>(path);
+    }
+
+    private static List<List<Leg>> dropDominated(Collection<List<Leg>> paths) {
+        List<List<Leg>> kept = new ArrayList<>();
+        for (List<Leg> candidate : paths) {
+            boolean dominated = paths.stream().anyMatch(other -> other != candidate
+                    && !departure(other).isBefore(departure(candidate))
+                    && !arrival(other).isAfter(arrival(candidate))
+                    && other.size() <= candidate.size()
+                    && (departure(other).isAfter(departure(candidate))
+                        || arrival(other).isBefore(arrival(candidate))
+                        || other.size() < candidate.size()));
+            if (!dominated) {
+                kept.add(candidate);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * The in-memory graph only covers the rolling horizon; searches further ahead are answered
+     * from a one-off graph over just the requested window.
+     */
+    private Graph graphCovering(LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(horizonEnd)) {
+            return graph;
+        }
+        List<Leg> legs = scheduleRepository.findBookableSchedulesDepartingBetween(from, to).stream()
+                .map(Leg::of)
+                .collect(Collectors.toList());
+        return Graph.build(legs, routeRepository.findAll());
+    }
+
+    private static LocalDateTime departure(List<Leg> path) {
+        return path.get(0).departureTime();
+    }
+
+    private static LocalDateTime arrival(List<Leg> path) {
+        return path.get(path.size() - 1).arrivalTime();
+    }
+
+    private TripItineraryResponse toResponse(List<Leg> path) {
+        List<ItineraryLegResponse> legs = path.stream()
+                .map(leg -> ItineraryLegResponse.builder()
+                        .scheduleId(leg.scheduleId())
+                        .busName(leg.busName())
+                        .companyName(leg.companyName())
+                        .origin(leg.origin())
+                        .destination(leg.destination())
+                        .departureTime(leg.departureTime())
+                        .arrivalTime(leg.arrivalTime())
+                        .pricePerSeat(leg.pricePerSeat())
+                        .build())
+                .collect(Collectors.toList());
+
+        return TripItineraryResponse.builder()
+                .origin(path.get(0).origin())
+                .destination(path.get(path.size() - 1).destination())
+                .departureTime(departure(path))
+                .arrivalTime(arrival(path))
+                .totalDurationMinutes(Duration.between(departure(path), arrival(path)).toMinutes())
+                .transfers(path.size() - 1)
+                .totalPrice(path.stream().mapToDouble(Leg::pricePerSeat).sum())
+                .legs(legs)
+                .build();
+    }
+
+    private record Leg(int scheduleId, String origin, String destination, LocalDateTime departureTime,
+                       LocalDateTime arrivalTime, double pricePerSeat, String busName, String companyName) {
+        static Leg of(Schedule schedule) {
+            return new Leg(
+                    schedule.getScheduleId(),
+                    schedule.getRoute().getOrigin(),
+                    schedule.getRoute().getDestination(),
+                    schedule.getDepartureTime(),
+                    schedule.getArrivalTime(),
+                    schedule.getPricePerSeat(),
+                    schedule.getBus() != null ? schedule.getBus().getBusNumber() : null,
+                    schedule.getBus() != null ? schedule.getBus().getCompanyName() : null);
+        }
+    }
+
+    /**
+     * Immutable snapshot: departures per stop sorted by time, plus the reverse adjacency derived
+     * from {@link Route} rows and trips, used to prune stops that can never reach the destination.
+     */
+    private static final class Graph {
+        static final Leg[] NO_LEGS = new Leg[0];
+        static final Graph EMPTY = new Graph(Collections.emptyMap(), Collections.emptyMap());
+
+        final Map<String, Leg[]> departures;
+        final Map<String, Set<String>> incoming;
+
+        private Graph(Map<String, Leg[]> departures, Map<String, Set<String>> incoming) {
+            this.departures = departures;
+            this.incoming = incoming;
+        }
+
+        static Graph build(Collection<Leg> legs, List<Route> routes) {
+            Map<String, List<Leg>> grouped = legs.stream().collect(Collectors.groupingBy(Leg::origin));
+            Map<String, Leg[]> departures = new HashMap<>();
+            grouped.forEach((stop, stopLegs) -> {
+                Leg[] sorted = stopLegs.toArray(NO_LEGS);
+                Arrays.sort(sorted, BY_DEPARTURE);
+                departures.put(stop, sorted);
+            });
+
+            Map<String, Set<String>> incoming = new HashMap<>();
+            for (Route route : routes) {
+                incoming.computeIfAbsent(route.getDestination(), stop -> new HashSet<>()).add(route.getOrigin());
+            }
+            for (Leg leg : legs) {
+                incoming.computeIfAbsent(leg.destination(), stop -> new HashSet<>()).add(leg.origin());
+            }
+            return new Graph(departures, incoming);
+        }
+
+        /** Copy-on-write update touching only the origin stops of the old and new leg. */
+        Graph replace(Leg previous, Leg current) {
+            Map<String, Leg[]> nextDepartures = new HashMap<>(departures);
+            if (previous != null) {
+                Leg[] legs = nextDepartures.getOrDefault(previous.origin(), NO_LEGS);
+                Leg[] remaining = Arrays.stream(legs)
+                        .filter(leg -> leg.scheduleId() != previous.scheduleId())
+                        .toArray(Leg[]::new);
+                if (remaining.length == 0) {
+                    nextDepartures.remove(previous.origin());
+                } else {
+                    nextDepartures.put(previous.origin(), remaining);
+                }
+            }
+
+            Map<String, Set<String>> nextIncoming = incoming;
+            if (current != null) {
+                Leg[] legs = nextDepartures.getOrDefault(current.origin(), NO_LEGS);
+                Leg[] extended = Arrays.copyOf(legs, legs.length + 1);
+                extended[legs.length] = current;
+                Arrays.sort(extended, BY_DEPARTURE);
+                nextDepartures.put(current.origin(), extended);
+
+                if (!incoming.getOrDefault(current.destination(), Collections.emptySet()).contains(current.origin())) {
+                    nextIncoming = new HashMap<>(incoming);
+                    Set<String> origins = new HashSet<>(nextIncoming.getOrDefault(current.destination(), Collections.emptySet()));
+                    origins.add(current.origin());
+                    nextIncoming.put(current.destination(), origins);
+                }
+            }
+            return new Graph(nextDepartures, nextIncoming);
+        }
+
+        int firstDepartureAtOrAfter(String stop, LocalDateTime time) {
+            Leg[] legs = departures.getOrDefault(stop, NO_LEGS);
+            int low = 0;
+            int high = legs.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (legs[mid].departureTime().isBefore(time)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        Set<String> stopsReaching(String destination) {
+            Set<String> reachable = new HashSet<>();
+            Deque<String> pending = new ArrayDeque<>();
+            reachable.add(destination);
+            pending.add(destination);
+            while (!pending.isEmpty()) {
+                for (String origin : incoming.getOrDefault(pending.poll(), Collections.emptySet())) {
+                    if (reachable.add(origin)) {
+                        pending.add(origin);
+                    }
+                }
+            }
+            return reachable;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.backend.benxere.service.search;
+
+import com.backend.benxere.entity.Location;
+import com.backend.benxere.repository.LocationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory, accent-insensitive trigram index over {@link Location#getName()}.
+ * Writers rebuild an immutable snapshot (locations change rarely), readers never lock.
+ */
+@Component
+@Slf4j
+public class LocationSearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+    private static final String WORD_PAD = "  ";
+    private static final double MIN_GRAM_RATIO = 0.5;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+
+    private final LocationRepository locationRepository;
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public LocationSearchIndex(LocationRepository locationRepository) {
+        this.locationRepository = locationRepository;
+    }
+
+    @PostConstruct
+    public void loadLocations() {
+        rebuild(locationRepository.findAll());
+        log.info("Indexed {} pickup/dropoff locations for search", snapshot.entries.length);
+    }
+
+    public synchronized void rebuild(Collection<Location> locations) {
+        entries.clear();
+        for (Location location : locations) {
+            entries.put(location.getLocationId(), Entry.of(location));
+        }
+        publish();
+    }
+
+    public synchronized void put(Location location) {
+        entries.put(location.getLocationId(), Entry.of(location));
+        publish();
+    }
+
+    public synchronized void remove(int locationId) {
+        if (entries.remove(locationId) != null) {
+            publish();
+        }
+    }
+
+    /**
+     * Returns at most {@code limit} matches ordered by relevance: whole-name prefix first,
+     * then word prefix, then substring, then trigram overlap; shorter names win ties.
+     */
+    public List<Hit> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Snapshot current = snapshot;
+        Set<String> grams = queryGrams(normalized);
+        Map<Integer, Integer> matchedGrams = new HashMap<>();
+        for (String gram : grams) {
+            int[] postings = current.postings.get(gram);
+            if (postings == null) {
+                continue;
+            }
+            for (int ordinal : postings) {
+                matchedGrams.merge(ordinal, 1, Integer::sum);
+            }
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, Hit.RANKING.reversed());
+        for (Map.Entry<Integer, Integer> candidate : matchedGrams.entrySet()) {
+            Entry entry = current.entries[candidate.getKey()];
+            double score = score(entry.normalizedName, normalized, candidate.getValue(), grams.size());
+            if (score <= 0) {
+                continue;
+            }
+            top.offer(new Hit(entry.locationId, entry.name, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(Hit.RANKING);
+        return hits;
+    }
+
+    private static double score(String name, String query, int matched, int total) {
+        double ratio = (double) matched / total;
+        boolean contains = name.contains(query);
+        if (!contains && ratio < MIN_GRAM_RATIO) {
+            return 0;
+        }
+        double score = ratio;
+        if (name.startsWith(query)) {
+            score += 3;
+        } else if (name.contains(" " + query)) {
+            score += 2;
+        } else if (contains) {
+            score += 1;
+        }
+        return score;
+    }
+
+    private void publish() {
+        Entry[] ordered = entries.values().toArray(new Entry[0]);
+        Map<String, List<Integer>> building = new HashMap<>();
+        for (int ordinal = 0; ordinal < ordered.length; ordinal++) {
+            for (String gram : documentGrams(ordered[ordinal].normalizedName)) {
+                building.computeIfAbsent(gram, g -> new ArrayList<>()).add(ordinal);
+            }
+        }
+        Map<String, int[]> postings = new HashMap<>(building.size() * 2);
+        building.forEach((gram, ordinals) -> postings.put(gram, ordinals.stream().mapToInt(Integer::intValue).toArray()));
+        snapshot = new Snapshot(ordered, postings);
+    }
+
+    /**
+     * Each word is padded in front so that one- and two-letter prefixes still produce grams,
+     * and at the back so that complete words score higher than partial ones.
+     */
+    private static Set<String> documentGrams(String normalizedName) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : normalizedName.split(" ")) {
+            addGrams(grams, WORD_PAD + word + " ");
+        }
+        return grams;
+    }
+
+    /** Query words are only front-padded so the last, still-being-typed word matches as a prefix. */
+    private static Set<String> queryGrams(String normalizedQuery) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : normalizedQuery.split(" ")) {
+            addGrams(grams, WORD_PAD + word);
+        }
+        return grams;
+    }
+
+    private static void addGrams(Set<String> grams, String padded) {
+        for (int i = 0; i + GRAM_SIZE <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_SIZE));
+        }
+    }
+
+    /**
+     * Lower-cases, strips Vietnamese diacritics (including đ) and collapses punctuation to single spaces.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("").replace('đ', 'd');
+        return NON_ALNUM.matcher(stripped).replaceAll(" ").trim();
+    }
+
+    public record Hit(int locationId, String name, double score) {
+        static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparingInt(hit -> hit.name().length())
+                .thenComparingInt(Hit::locationId);
+    }
+
+    private record Entry(int locationId, String name, String normalizedName) {
+        static Entry of(Location location) {
+            return new Entry(location.getLocationId(), location.getName(), normalize(location.getName()));
+        }
+    }
+
+    private record Snapshot(Entry[] entries, Map<String, int[]> postings) {
+        static final Snapshot EMPTY = new Snapshot(new Entry[0], Collections.emptyMap());
+    }
+}
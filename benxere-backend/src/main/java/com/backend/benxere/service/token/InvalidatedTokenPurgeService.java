@@ -0,0 +1,80 @@
+package com.backend.benxere.service.token;
+
+import com.backend.benxere.repository.InvalidatedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes revocations whose token has expired anyway. Rows go in small batches, each in its own
+ * transaction, so the purge never holds long locks on the table logout and refresh write to. The
+ * deletes go through JDBC rather than a native JPA query, which Hibernate would answer by evicting
+ * every second-level cache region on each batch.
+ */
+@Service
+@Slf4j
+public class InvalidatedTokenPurgeService {
+    private static final String DELETE_EXPIRED_BATCH =
+            "DELETE FROM invalidated_token WHERE expiry_time < ? LIMIT ?";
+
+    private final InvalidatedTokenRepository invalidatedTokenRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final AtomicLong tableSize = new AtomicLong();
+    private final Counter purgedRows;
+    private final Timer purgeTimer;
+
+    public InvalidatedTokenPurgeService(InvalidatedTokenRepository invalidatedTokenRepository,
+                                        JdbcTemplate jdbcTemplate,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${jwt.revocation.purge-batch-size:1000}") int batchSize,
+                                        @Value("${jwt.revocation.purge-max-batches:100}") int maxBatchesPerRun) {
+        this.invalidatedTokenRepository = invalidatedTokenRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.purgedRows = Counter.builder("invalidated.token.purged")
+                .description("Expired invalidated_token rows deleted by the purge job")
+                .register(meterRegistry);
+        this.purgeTimer = Timer.builder("invalidated.token.purge")
+                .description("Duration of invalidated_token purge runs")
+                .register(meterRegistry);
+        Gauge.builder("invalidated.token.rows", tableSize, AtomicLong::doubleValue)
+                .description("Rows in invalidated_token after the last purge run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${jwt.revocation.purge-cron:0 */15 * * * *}")
+    public void purgeExpired() {
+        int purged = purgeTimer.record(this::deleteInBatches);
+        tableSize.set(invalidatedTokenRepository.count());
+        if (purged > 0) {
+            log.info("Purged {} expired invalidated tokens, {} remain", purged, tableSize.get());
+        }
+    }
+
+    private int deleteInBatches() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int deleted = jdbcTemplate.update(DELETE_EXPIRED_BATCH, now, batchSize);
+            total += deleted;
+            purgedRows.increment(deleted);
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
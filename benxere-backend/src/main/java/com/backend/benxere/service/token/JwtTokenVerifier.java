@@ -0,0 +1,74 @@
+package com.backend.benxere.service.token;
+
+import com.backend.benxere.exception.AppException;
+import com.backend.benxere.exception.ErrorCode;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.util.Date;
+
+/**
+ * Verifies the tokens issued by {@code AuthenticationService} in a single pass: one parse, one HMAC
+ * check with a verifier built once at startup, and a revocation lookup that stays in memory.
+ */
+@Component
+public class JwtTokenVerifier {
+    private final JWSVerifier verifier;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+
+    public JwtTokenVerifier(@Value("${jwt.signerKey}") String signerKey,
+                            RevokedTokenRegistry revokedTokenRegistry) throws JOSEException {
+        this.verifier = new MACVerifier(signerKey.getBytes());
+        this.revokedTokenRegistry = revokedTokenRegistry;
+    }
+
+    /**
+     * Checks signature, expiry and revocation of an access token.
+     */
+    public SignedJWT verifyAccessToken(String token) {
+        SignedJWT signedJWT = verifySignature(token);
+        JWTClaimsSet claims = claimsOf(signedJWT);
+        Date expiryTime = claims.getExpirationTime();
+        if (expiryTime == null || !expiryTime.after(new Date())) {
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
+        }
+        if (revokedTokenRegistry.isRevoked(claims.getJWTID())) {
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
+        }
+        return signedJWT;
+    }
+
+    /**
+     * Parses the token and checks its HS256 signature only; callers apply their own expiry rule.
+     */
+    public SignedJWT verifySignature(String token) {
+        try {
+            SignedJWT signedJWT = SignedJWT.parse(token);
+            if (!JWSAlgorithm.HS256.equals(signedJWT.getHeader().getAlgorithm()) || !signedJWT.verify(verifier)) {
+                throw new AppException(ErrorCode.UNAUTHENTICATED);
+            }
+            return signedJWT;
+        } catch (ParseException | JOSEException e) {
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
+        }
+    }
+
+    public boolean isRevoked(SignedJWT signedJWT) {
+        return revokedTokenRegistry.isRevoked(claimsOf(signedJWT).getJWTID());
+    }
+
+    public static JWTClaimsSet claimsOf(SignedJWT signedJWT) {
+        try {
+            return signedJWT.getJWTClaimsSet();
+        } catch (ParseException e) {
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.backend.benxere.service.token;
+
+import com.backend.benxere.entity.InvalidatedToken;
+import com.backend.benxere.repository.InvalidatedTokenRepository;
+import com.backend.benxere.service.cluster.ClusterBus;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory view of {@code invalidated_token}, so checking whether a JTI was revoked never touches the
+ * database. A Bloom filter answers the common "never revoked" case; its rare positives are confirmed
+ * against the exact set. The table stays the source of truth: it is loaded at startup, and a revocation
+ * is announced to the other instances on the {@link ClusterBus} as soon as it is stored. In case an
+ * announcement is lost, every instance also re-reads the rows revoked since its last sync, going back
+ * {@code jwt.revocation.catch-up-overlap-ms} so rows committed late are not skipped.
+ */
+@Component
+@Slf4j
+public class RevokedTokenRegistry {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final String CLUSTER_CHANNEL = "revoked-tokens";
+
+    private final InvalidatedTokenRepository invalidatedTokenRepository;
+    private final ClusterBus clusterBus;
+    private final int expectedRevocations;
+    private final long catchUpOverlapMillis;
+
+    /** JTI to expiry (epoch millis). */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    /** Latest {@code revoked_at} read from the table; only touched by load and the sync job. */
+    private Date syncedUpTo = new Date(0);
+
+    public RevokedTokenRegistry(InvalidatedTokenRepository invalidatedTokenRepository,
+                                ClusterBus clusterBus,
+                                @Value("${jwt.revocation.expected-tokens:100000}") int expectedRevocations,
+                                @Value("${jwt.revocation.catch-up-overlap-ms:300000}") long catchUpOverlapMillis) {
+        this.invalidatedTokenRepository = invalidatedTokenRepository;
+        this.clusterBus = clusterBus;
+        this.expectedRevocations = expectedRevocations;
+        this.catchUpOverlapMillis = catchUpOverlapMillis;
+        this.filter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+        clusterBus.subscribe(CLUSTER_CHANNEL, this::onRevokedElsewhere);
+    }
+
+    @PostConstruct
+    public void load() {
+        apply(invalidatedTokenRepository.findByExpiryTimeAfter(new Date()));
+        log.info("Loaded {} revoked token ids", revoked.size());
+    }
+
+    /** Catches up on rows revoked since the last sync and forgets expired ids. */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:60000}",
+            initialDelayString = "${jwt.revocation.sync-interval-ms:60000}")
+    public void reload() {
+        Date since = new Date(syncedUpTo.getTime() - catchUpOverlapMillis);
+        apply(invalidatedTokenRepository.findByRevokedAtAfterAndExpiryTimeAfter(since, new Date()));
+        long now = System.currentTimeMillis();
+        if (revoked.values().removeIf(expiry -> expiry <= now)) {
+            rebuildFilter();
+        }
+    }
+
+    /**
+     * Persists the revocation, makes it visible to {@link #isRevoked(String)} immediately and tells the
+     * other instances.
+     */
+    public void revoke(String jti, Date expiryTime) {
+        invalidatedTokenRepository.save(InvalidatedToken.builder().id(jti).expiryTime(expiryTime).build());
+        long expiry = expiryMillis(expiryTime);
+        remember(jti, expiry);
+        if (clusterBus.isDistributed()) {
+            clusterBus.publish(CLUSTER_CHANNEL, jti + " " + expiry);
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        Long expiry = revoked.get(jti);
+        return expiry != null && expiry > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private void apply(List<InvalidatedToken> tokens) {
+        for (InvalidatedToken token : tokens) {
+            remember(token.getId(), expiryMillis(token.getExpiryTime()));
+            if (token.getRevokedAt() != null && token.getRevokedAt().after(syncedUpTo)) {
+                syncedUpTo = token.getRevokedAt();
+            }
+        }
+    }
+
+    private void onRevokedElsewhere(String body) {
+        String[] parts = body.trim().split(" ");
+        try {
+            remember(parts[0], Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            log.warn("Ignoring unreadable token revocation from another instance: {}", body);
+        }
+    }
+
+    private synchronized void remember(String jti, long expiry) {
+        revoked.put(jti, expiry);
+        filter.add(jti);
+    }
+
+    /** Bloom filters cannot forget, so expired ids leave only when the filter is rebuilt from the exact set. */
+    private synchronized void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+
+    private static long expiryMillis(Date expiryTime) {
+        return expiryTime != null ? expiryTime.getTime() : Long.MAX_VALUE;
+    }
+
+    private static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.max(1, (optimalBits + 63) / 64);
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        void add(String value) {
+            long hash = hash64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current;
+                while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                    // retry until our bit is set
+                }
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** FNV-1a followed by a murmur3 finalizer, split into the two halves used for double hashing. */
+        private static long hash64(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb93fe1a85ec3L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.backend.benxere.service.token;
+
+import com.backend.benxere.entity.Role;
+import com.backend.benxere.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Granted authorities per role name, built once from the {@code roles} table and swapped wholesale when
+ * roles change. Every request carrying the same role shares the same immutable collection.
+ */
+@Component
+@Slf4j
+public class RoleAuthorityTable {
+    private static final String SCOPE_PREFIX = "SCOPE_";
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final RoleRepository roleRepository;
+    private volatile Map<String, Collection<GrantedAuthority>> authoritiesByRole = Collections.emptyMap();
+
+    /** Roles seen in tokens but missing from the table, e.g. deleted since the token was issued. */
+    private final Map<String, Collection<GrantedAuthority>> unknownRoles = new ConcurrentHashMap<>();
+
+    public RoleAuthorityTable(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @PostConstruct
+    public void refresh() {
+        Map<String, Collection<GrantedAuthority>> table = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            table.put(role.getName(), authoritiesOf(role.getName()));
+        }
+        authoritiesByRole = Map.copyOf(table);
+        unknownRoles.clear();
+        log.info("Built granted authorities for {} roles", table.size());
+    }
+
+    public Collection<GrantedAuthority> authoritiesFor(String roleName) {
+        if (roleName == null) {
+            return Collections.emptyList();
+        }
+        Collection<GrantedAuthority> authorities = authoritiesByRole.get(roleName);
+        return authorities != null ? authorities : unknownRoles.computeIfAbsent(roleName, RoleAuthorityTable::authoritiesOf);
+    }
+
+    /**
+     * The same pair the scope claim {@code ROLE_<name>} has always produced: Spring's default
+     * {@code SCOPE_} mapping plus the {@code ROLE_}-prefixed scope.
+     */
+    private static Collection<GrantedAuthority> authoritiesOf(String roleName) {
+        String scope = ROLE_PREFIX + roleName;
+        return List.of(new SimpleGrantedAuthority(SCOPE_PREFIX + scope), new SimpleGrantedAuthority(ROLE_PREFIX + scope));
+    }
+}
@@ -0,0 +1,111 @@
+package com.backend.benxere.service.token;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of tokens that already passed {@link JwtTokenVerifier}, so a client sending the same
+ * bearer token on every REST call and STOMP CONNECT pays for parsing and HMAC only once.
+ * <p>
+ * Entries are keyed by the token's signature segment, which is already an HMAC-SHA256 digest of the
+ * token, and a hit is only served when the full token matches. Entries stop being served at the token's
+ * {@code exp} and as soon as its JTI is revoked.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+    private final RevokedTokenRegistry revokedTokenRegistry;
+    private final int maxSize;
+
+    private final Map<String, Jwt> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedTokenCache(RevokedTokenRegistry revokedTokenRegistry,
+                              @Value("${jwt.verified-cache.max-size:10000}") int maxSize) {
+        this.revokedTokenRegistry = revokedTokenRegistry;
+        this.maxSize = maxSize;
+    }
+
+    public Jwt get(String token) {
+        String key = keyOf(token);
+        Jwt jwt = key != null ? entries.get(key) : null;
+        if (jwt == null || !jwt.getTokenValue().equals(token)) {
+            misses.increment();
+            return null;
+        }
+        if (isExpired(jwt, Instant.now()) || revokedTokenRegistry.isRevoked(jwt.getId())) {
+            entries.remove(key, jwt);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return jwt;
+    }
+
+    public void put(Jwt jwt) {
+        String key = keyOf(jwt.getTokenValue());
+        if (key == null || maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(key, jwt);
+    }
+
+    public void invalidate(String token) {
+        String key = keyOf(token);
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.verified-cache.cleanup-interval-ms:60000}")
+    public void removeExpired() {
+        Instant now = Instant.now();
+        entries.values().removeIf(jwt -> isExpired(jwt, now));
+    }
+
+    /**
+     * Drops expired entries first; if the cache is still full, frees a tenth of it. Which live entries go
+     * does not matter much, they are simply verified again on their next use.
+     */
+    private void evict() {
+        removeExpired();
+        int excess = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (excess-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static boolean isExpired(Jwt jwt, Instant now) {
+        Instant expiresAt = jwt.getExpiresAt();
+        return expiresAt == null || !expiresAt.isAfter(now);
+    }
+
+    private static String keyOf(String token) {
+        int signatureStart = token != null ? token.lastIndexOf('.') : -1;
+        return signatureStart > 0 && signatureStart < token.length() - 1 ? token.substring(signatureStart + 1) : null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("jwt.verified.cache.hits", hits, LongAdder::doubleValue).register(registry);
+        FunctionCounter.builder("jwt.verified.cache.misses", misses, LongAdder::doubleValue).register(registry);
+        Gauge.builder("jwt.verified.cache.size", entries, Map::size).register(registry);
+    }
+}
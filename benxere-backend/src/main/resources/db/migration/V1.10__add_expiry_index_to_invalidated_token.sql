@@ -0,0 +1,2 @@
+-- Index expiry_time so the purge job can delete expired revocations in small range scans
+CREATE INDEX idx_invalidated_token_expiry_time ON invalidated_token(expiry_time);
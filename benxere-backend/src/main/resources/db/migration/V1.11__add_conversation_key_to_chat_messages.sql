@@ -0,0 +1,10 @@
+-- Canonical conversation key: (LEAST(sender, receiver) << 32) | GREATEST(sender, receiver)
+ALTER TABLE chat_messages ADD COLUMN conversation_key BIGINT NULL;
+
+UPDATE chat_messages
+SET conversation_key = (CAST(LEAST(sender_id, receiver_id) AS UNSIGNED) << 32) | GREATEST(sender_id, receiver_id);
+
+ALTER TABLE chat_messages MODIFY conversation_key BIGINT NOT NULL;
+
+-- Keyset pagination on (sent_at, id) within a conversation
+CREATE INDEX idx_chat_messages_conversation ON chat_messages(conversation_key, sent_at, id);
@@ -0,0 +1,8 @@
+-- Id blocks for write-behind chat persistence; each instance reserves a range with one UPDATE
+CREATE TABLE chat_message_sequence (
+    id TINYINT PRIMARY KEY,
+    next_val BIGINT NOT NULL
+) ENGINE=InnoDB;
+
+INSERT INTO chat_message_sequence (id, next_val)
+SELECT 1, COALESCE(MAX(id), 0) + 1 FROM chat_messages;
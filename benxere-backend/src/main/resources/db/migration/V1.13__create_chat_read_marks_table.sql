@@ -0,0 +1,21 @@
+-- Read high-water mark per reader and conversation; replaces per-row is_read updates
+CREATE TABLE chat_read_marks (
+    reader_id INT NOT NULL,
+    conversation_key BIGINT NOT NULL,
+    last_read_message_id INT NOT NULL,
+    last_read_sent_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (reader_id, conversation_key),
+    FOREIGN KEY (reader_id) REFERENCES users(user_id)
+) ENGINE=InnoDB;
+
+-- Seed marks from the newest message each receiver had already read
+INSERT INTO chat_read_marks (reader_id, conversation_key, last_read_message_id, last_read_sent_at, updated_at)
+SELECT receiver_id, conversation_key, id, sent_at, NOW()
+FROM (
+    SELECT receiver_id, conversation_key, id, sent_at,
+           ROW_NUMBER() OVER (PARTITION BY receiver_id, conversation_key ORDER BY sent_at DESC, id DESC) AS rn
+    FROM chat_messages
+    WHERE is_read = TRUE
+) latest_read
+WHERE rn = 1;
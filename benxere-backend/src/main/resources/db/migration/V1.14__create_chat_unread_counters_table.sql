@@ -0,0 +1,16 @@
+-- Unread message count per receiver and sender, maintained incrementally on send and read
+CREATE TABLE chat_unread_counters (
+    user_id INT NOT NULL,
+    partner_id INT NOT NULL,
+    unread_count INT NOT NULL,
+    PRIMARY KEY (user_id, partner_id),
+    FOREIGN KEY (user_id) REFERENCES users(user_id)
+) ENGINE=InnoDB;
+
+INSERT INTO chat_unread_counters (user_id, partner_id, unread_count)
+SELECT m.receiver_id, m.sender_id, COUNT(*)
+FROM chat_messages m
+LEFT JOIN chat_read_marks r ON r.reader_id = m.receiver_id AND r.conversation_key = m.conversation_key
+WHERE m.sender_id <> m.receiver_id
+  AND (r.reader_id IS NULL OR (m.sent_at, m.id) > (r.last_read_sent_at, r.last_read_message_id))
+GROUP BY m.receiver_id, m.sender_id;
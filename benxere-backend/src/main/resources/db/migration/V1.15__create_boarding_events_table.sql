@@ -0,0 +1,13 @@
+-- Check-in/out events recorded by crew devices, keyed by the device-generated id so re-synced batches apply once
+CREATE TABLE boarding_events (
+    event_id VARCHAR(64) NOT NULL PRIMARY KEY,
+    schedule_id INT NOT NULL,
+    seat_id INT NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    occurred_at TIMESTAMP NOT NULL,
+    recorded_by INT NOT NULL,
+    received_at TIMESTAMP NOT NULL,
+    INDEX idx_boarding_events_schedule (schedule_id),
+    FOREIGN KEY (schedule_id) REFERENCES schedules(schedule_id),
+    FOREIGN KEY (seat_id) REFERENCES seats(seat_id)
+) ENGINE=InnoDB;
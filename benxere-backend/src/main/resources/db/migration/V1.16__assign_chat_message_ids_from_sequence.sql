@@ -0,0 +1,6 @@
+-- Chat message ids come only from chat_message_sequence; the column no longer generates its own
+ALTER TABLE chat_messages MODIFY id INT NOT NULL;
+
+UPDATE chat_message_sequence
+SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 1 FROM chat_messages))
+WHERE id = 1;
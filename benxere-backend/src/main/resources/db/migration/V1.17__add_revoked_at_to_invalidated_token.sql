@@ -0,0 +1,3 @@
+-- Stamp each revocation with the database clock so instances can catch up on rows newer than their last sync
+ALTER TABLE invalidated_token ADD COLUMN revoked_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+CREATE INDEX idx_invalidated_token_revoked_at ON invalidated_token(revoked_at);
@@ -0,0 +1,3 @@
+-- Keep sent times to the microsecond so messages sent within the same second keep their order
+ALTER TABLE chat_messages MODIFY sent_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+ALTER TABLE chat_read_marks MODIFY last_read_sent_at TIMESTAMP(6) NOT NULL;
@@ -0,0 +1,283 @@
+package com.backend.benxere.configuration;
+
+import com.backend.benxere.service.cluster.ClusterBus;
+import com.backend.benxere.service.cluster.StompRelayClusterBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.websocket.server.ServerContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.UserRegistryMessageHandler;
+import org.springframework.messaging.support.AbstractMessageChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.handler.AbstractUrlHandlerMapping;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs several application contexts with the production {@link WebSocketBrokerConfig}, each with its own
+ * embedded simple broker, joined by an in-process cluster bus, and checks that what one instance sends
+ * reaches sessions connected to the others. Relay mode is checked for its wiring only, against a port
+ * nobody listens on.
+ */
+class MultiNodeBrokerIntegrationTest {
+    private static final String USER = "customer@example.com";
+    private static final long HEARTBEAT_MILLIS = 2000;
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final String network = UUID.randomUUID().toString();
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(node -> node.context.close());
+    }
+
+    @Test
+    void topicMessagesReachSubscribersOnEveryNode() throws InterruptedException {
+        Node first = startNode();
+        Node second = startNode();
+        first.connect("first-session", null);
+        first.subscribe("first-session", null, "/topic/presence", "/topic/presence");
+        second.connect("second-session", null);
+        second.subscribe("second-session", null, "/topic/presence", "/topic/presence");
+
+        second.template().convertAndSend("/topic/presence", "online");
+
+        assertThat(text(first.nextMessage())).isEqualTo("online");
+        assertThat(text(second.nextMessage())).isEqualTo("online");
+    }
+
+    @Test
+    void userDestinationsResolveToSessionsOnAnotherNode() throws InterruptedException {
+        Node connected = startNode();
+        Node sender = startNode();
+        Principal user = () -> USER;
+        connected.connect("customer-session", user);
+        connected.subscribe("customer-session", user, "/user/queue/unread", "/queue/unread-usercustomer-session");
+
+        sender.template().convertAndSendToUser(USER, "/queue/unread", "3");
+
+        Message<?> delivered = connected.nextMessage();
+        assertThat(text(delivered)).isEqualTo("3");
+        assertThat(SimpMessageHeaderAccessor.getSessionId(delivered.getHeaders())).isEqualTo("customer-session");
+        assertThat(sender.nextMessage(200)).isNull();
+    }
+
+    @Test
+    void messagesAreNotEchoedBackToTheSendingNode() throws InterruptedException {
+        Node first = startNode();
+        startNode();
+        first.connect("first-session", null);
+        first.subscribe("first-session", null, "/topic/schedules", "/topic/schedules");
+
+        first.template().convertAndSend("/topic/schedules", "changed");
+
+        assertThat(text(first.nextMessage())).isEqualTo("changed");
+        assertThat(first.nextMessage(200)).isNull();
+    }
+
+    @Test
+    void instancesOnOtherNetworksAreNotReached() throws InterruptedException {
+        Node first = startNode();
+        Node stranger = startNode(UUID.randomUUID().toString());
+        stranger.connect("stranger-session", null);
+        stranger.subscribe("stranger-session", null, "/topic/presence", "/topic/presence");
+
+        first.template().convertAndSend("/topic/presence", "online");
+
+        assertThat(stranger.nextMessage(200)).isNull();
+    }
+
+    @Test
+    void nodesRunTheProductionBrokerSetup() {
+        Node node = startNode();
+
+        SimpleBrokerMessageHandler broker = node.context.getBean(SimpleBrokerMessageHandler.class);
+        assertThat(broker.getHeartbeatValue()).containsExactly(HEARTBEAT_MILLIS, HEARTBEAT_MILLIS);
+        assertThat(broker.getTaskScheduler()).isNotNull();
+        assertThat(interceptorsOf(node.context, "clientOutboundChannel"))
+                .contains(node.context.getBean(OutboundBackpressureInterceptor.class));
+        assertThat(interceptorsOf(node.context, "brokerChannel"))
+                .contains(node.context.getBean(ClusterBrokerBridge.class));
+        assertThat(node.context.getBean("stompWebSocketHandlerMapping", AbstractUrlHandlerMapping.class)
+                .getHandlerMap().keySet()).contains("/ws", "/ws/**");
+    }
+
+    @Test
+    void relayModeUsesTheExternalBrokerAndTheRelayClusterBus() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        AnnotationConfigWebApplicationContext context = startContext(Map.of(
+                "websocket.broker.relay.enabled", "true",
+                "websocket.broker.relay.host", "127.0.0.1",
+                "websocket.broker.relay.port", Integer.toString(closedPort)));
+        nodes.add(new Node(context));
+
+        StompBrokerRelayMessageHandler relay = context.getBean(StompBrokerRelayMessageHandler.class);
+        assertThat(relay.getRelayPort()).isEqualTo(closedPort);
+        assertThat(context.getBean("userRegistryMessageHandler", UserRegistryMessageHandler.class)
+                .getBroadcastDestination()).isEqualTo("/topic/simp-user-registry");
+        assertThat(context.getBeanProvider(SimpleBrokerMessageHandler.class).getIfAvailable()).isNull();
+        assertThat(interceptorsOf(context, "brokerChannel")).doesNotContain(context.getBean(ClusterBrokerBridge.class));
+        assertThat(interceptorsOf(context, "clientOutboundChannel"))
+                .contains(context.getBean(OutboundBackpressureInterceptor.class));
+        assertThat(context.getBean(ClusterBus.class)).isInstanceOf(StompRelayClusterBus.class);
+    }
+
+    private Node startNode() {
+        return startNode(network);
+    }
+
+    private Node startNode(String nodeNetwork) {
+        Node node = new Node(startContext(Map.of(
+                "websocket.cluster.bus", "in-process",
+                "websocket.cluster.network", nodeNetwork)));
+        nodes.add(node);
+        return node;
+    }
+
+    /**
+     * A web application context around {@link NodeConfig}. The servlet context carries a stand-in for the
+     * container's WebSocket {@link ServerContainer}, which the production config tunes on startup.
+     */
+    private static AnnotationConfigWebApplicationContext startContext(Map<String, Object> properties) {
+        Map<String, Object> testProperties = new HashMap<>(properties);
+        testProperties.put("websocket.heartbeat.interval-ms", Long.toString(HEARTBEAT_MILLIS));
+        MockServletContext servletContext = new MockServletContext();
+        servletContext.setAttribute(ServerContainer.class.getName(), Proxy.newProxyInstance(
+                ServerContainer.class.getClassLoader(), new Class<?>[] {ServerContainer.class},
+                (proxy, method, args) -> null));
+
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(servletContext);
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", testProperties));
+        context.register(NodeConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    private static List<?> interceptorsOf(AnnotationConfigWebApplicationContext context, String channel) {
+        return context.getBean(channel, AbstractMessageChannel.class).getInterceptors();
+    }
+
+    private static String text(Message<?> message) {
+        assertThat(message).as("message delivered to the session").isNotNull();
+        return new String((byte[]) message.getPayload(), StandardCharsets.UTF_8);
+    }
+
+    private static final class Node {
+        final AnnotationConfigWebApplicationContext context;
+        final BlockingQueue<Message<?>> delivered = new LinkedBlockingQueue<>();
+
+        Node(AnnotationConfigWebApplicationContext context) {
+            this.context = context;
+            context.getBean("clientOutboundChannel", SubscribableChannel.class).subscribe(message -> {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                    delivered.add(message);
+                }
+            });
+        }
+
+        SimpMessagingTemplate template() {
+            return context.getBean(SimpMessagingTemplate.class);
+        }
+
+        /** Sends a client CONNECT and announces the session the way the STOMP handler does once it is accepted. */
+        void connect(String sessionId, Principal user) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+            accessor.setSessionId(sessionId);
+            accessor.setHeader(SimpMessageHeaderAccessor.HEART_BEAT_HEADER, new long[] {0, 0});
+            accessor.setSessionAttributes(new HashMap<>());
+            if (user != null) {
+                accessor.setUser(user);
+            }
+            Message<byte[]> connect = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+            context.getBean("clientInboundChannel", MessageChannel.class).send(connect);
+            if (user != null) {
+                context.publishEvent(new SessionConnectedEvent(this, connect, user));
+            }
+        }
+
+        /** Sends a client SUBSCRIBE and waits until the broker has registered it under {@code brokerDestination}. */
+        void subscribe(String sessionId, Principal user, String destination, String brokerDestination) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+            accessor.setSessionId(sessionId);
+            accessor.setSubscriptionId("sub-0");
+            accessor.setDestination(destination);
+            accessor.setSessionAttributes(new HashMap<>());
+            if (user != null) {
+                accessor.setUser(user);
+            }
+            context.getBean("clientInboundChannel", MessageChannel.class)
+                    .send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+
+            SimpMessageHeaderAccessor probe = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            probe.setDestination(brokerDestination);
+            Message<byte[]> probeMessage = MessageBuilder.createMessage(new byte[0], probe.getMessageHeaders());
+            SimpleBrokerMessageHandler broker = context.getBean(SimpleBrokerMessageHandler.class);
+            await().atMost(Duration.ofSeconds(5)).until(() -> broker.getSubscriptionRegistry()
+                    .findSubscriptions(probeMessage).containsKey(sessionId));
+        }
+
+        Message<?> nextMessage() throws InterruptedException {
+            return nextMessage(5000);
+        }
+
+        Message<?> nextMessage(long timeoutMillis) throws InterruptedException {
+            return delivered.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** The production broker setup and what it depends on; everything else in the application is left out. */
+    @Configuration
+    @Import({WebSocketBrokerConfig.class, ClusterBusConfig.class, ClusterBrokerBridge.class,
+            OutboundBackpressureInterceptor.class})
+    static class NodeConfig {
+        @Bean
+        static ConversionService conversionService() {
+            return new DefaultConversionService();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.backend.benxere.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/** {@code @Scheduled} jobs must not land on the broker's scheduler even though it is a TaskScheduler bean too. */
+class SchedulingConfigTest {
+
+    @Test
+    void scheduledJobsRunOnTheApplicationScheduler() {
+        try (AnnotationConfigApplicationContext context =
+                     new AnnotationConfigApplicationContext(SchedulingConfig.class, JobConfig.class)) {
+            Probe probe = context.getBean(Probe.class);
+            await().atMost(Duration.ofSeconds(5)).until(() -> !probe.threadNames.isEmpty());
+
+            assertThat(probe.threadNames.stream().allMatch(name -> name.startsWith("app-scheduler-"))).isTrue();
+        }
+    }
+
+    @Configuration
+    @EnableScheduling
+    static class JobConfig {
+        /** Stands in for the scheduler {@code @EnableWebSocketMessageBroker} registers. */
+        @Bean
+        ThreadPoolTaskScheduler messageBrokerTaskScheduler() {
+            ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setThreadNamePrefix("MessageBroker-");
+            return scheduler;
+        }
+
+        @Bean
+        Probe probe() {
+            return new Probe();
+        }
+    }
+
+    static class Probe {
+        final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+        @Scheduled(fixedDelay = 10)
+        void run() {
+            threadNames.add(Thread.currentThread().getName());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.backend.benxere.service.chat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Write-behind behaviour against an in-memory stand-in for {@code chat_messages} that enforces the
+ * constraints the real table does: non-null content, the {@code TEXT} size limit and a unique id.
+ */
+class ChatMessageWriterTest {
+    private static final LocalDateTime SENT_AT = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private FakeChatMessagesTable table;
+    private SimpleMeterRegistry meterRegistry;
+    private ChatMessageWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        table = new FakeChatMessagesTable();
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new ChatMessageWriter(table, meterRegistry, 100, 50, 10);
+    }
+
+    @Test
+    void rejectedRowIsDeadLetteredAndDoesNotBlockLaterMessages() {
+        writer.append(message(1, "hello"));
+        writer.append(message(2, null));
+        writer.append(message(3, "x".repeat(ChatMessageWriter.MAX_CONTENT_BYTES + 1)));
+        writer.append(message(4, "world"));
+        writer.flush();
+
+        assertThat(table.rows.keySet()).containsExactly(1, 4);
+        assertThat(deadLettered()).isEqualTo(2.0);
+
+        writer.append(message(5, "still flowing"));
+        writer.flush();
+
+        assertThat(table.rows.keySet()).containsExactly(1, 4, 5);
+    }
+
+    @Test
+    void databaseOutageKeepsMessagesForRetry() {
+        table.down = true;
+        writer.append(message(1, "first"));
+        writer.append(message(2, "second"));
+        writer.flush();
+
+        assertThat(table.rows).isEmpty();
+
+        table.down = false;
+        writer.append(message(3, "third"));
+        writer.flush();
+
+        assertThat(table.rows.keySet()).containsExactly(1, 2, 3);
+        assertThat(deadLettered()).isEqualTo(0.0);
+    }
+
+    @Test
+    void rowAlreadyStoredByFailedBatchIsNotDeadLettered() {
+        table.store(message(1, "stored before the batch failed"));
+        writer.append(message(1, "stored before the batch failed"));
+        writer.append(message(2, "after"));
+        writer.flush();
+
+        assertThat(table.rows.keySet()).containsExactly(1, 2);
+        assertThat(deadLettered()).isEqualTo(0.0);
+    }
+
+    @Test
+    void collidingIdFromAnotherConversationIsDeadLettered() {
+        table.store(new ChatMessageWriter.PendingMessage(1, "someone else's", 7, 8, SENT_AT, 0L));
+        writer.append(message(1, "mine"));
+        writer.flush();
+
+        assertThat(table.rows.get(1)[1]).isEqualTo("someone else's");
+        assertThat(deadLettered()).isEqualTo(1.0);
+    }
+
+    @Test
+    void storableContentIsMeasuredInUtf8Bytes() {
+        assertThat(ChatMessageWriter.isStorable(null)).isFalse();
+        assertThat(ChatMessageWriter.isStorable("")).isFalse();
+        assertThat(ChatMessageWriter.isStorable("a".repeat(ChatMessageWriter.MAX_CONTENT_BYTES))).isTrue();
+        assertThat(ChatMessageWriter.isStorable("a".repeat(ChatMessageWriter.MAX_CONTENT_BYTES + 1))).isFalse();
+        assertThat(ChatMessageWriter.isStorable("\u00e9".repeat(30000))).isTrue();
+        assertThat(ChatMessageWriter.isStorable("\u00e9".repeat(40000))).isFalse();
+    }
+
+    private double deadLettered() {
+        return meterRegistry.get("chat.write.behind.dead.lettered").counter().count();
+    }
+
+    private static ChatMessageWriter.PendingMessage message(int id, String content) {
+        return new ChatMessageWriter.PendingMessage(id, content, 1, 2, SENT_AT, 2L);
+    }
+
+    /** Applies each batch atomically, like a batch inside one transaction. */
+    private static class FakeChatMessagesTable extends JdbcTemplate {
+        private final Map<Integer, Object[]> rows = new LinkedHashMap<>();
+        private boolean down;
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            if (down) {
+                throw new CannotGetJdbcConnectionException("Connection refused");
+            }
+            List<Object[]> batch = new ArrayList<>();
+            for (T arg : batchArgs) {
+                Object[] row = new Object[8];
+                try {
+                    pss.setValues(capturing(row), arg);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+                batch.add(row);
+            }
+            for (Object[] row : batch) {
+                String content = (String) row[2];
+                if (content == null) {
+                    throw new DataIntegrityViolationException("Column 'content' cannot be null");
+                }
+                if (content.getBytes(StandardCharsets.UTF_8).length > ChatMessageWriter.MAX_CONTENT_BYTES) {
+                    throw new DataIntegrityViolationException("Data too long for column 'content'");
+                }
+                if (rows.containsKey((Integer) row[1])) {
+                    throw new DuplicateKeyException("Duplicate entry '" + row[1] + "' for key 'PRIMARY'");
+                }
+            }
+            batch.forEach(row -> rows.put((Integer) row[1], new Object[]{row[1], row[2], row[3], row[4]}));
+            return new int[][]{new int[batch.size()]};
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            Object[] row = rows.get((Integer) args[0]);
+            boolean same = row != null && row[2].equals(args[1]) && row[3].equals(args[2]);
+            return (T) Integer.valueOf(same ? 1 : 0);
+        }
+
+        void store(ChatMessageWriter.PendingMessage message) {
+            rows.put(message.id(), new Object[]{message.id(), message.content(), message.senderId(), message.receiverId()});
+        }
+
+        private static PreparedStatement capturing(Object[] row) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") && args != null && args.length == 2
+                                && args[0] instanceof Integer index) {
+                            row[index] = args[1];
+                        }
+                        return null;
+                    });
+        }
+    }
+}
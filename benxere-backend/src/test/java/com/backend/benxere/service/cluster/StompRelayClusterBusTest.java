@@ -0,0 +1,225 @@
+package com.backend.benxere.service.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs buses against a minimal STOMP broker that accepts any login, keeps subscriptions per connection
+ * and forwards {@code SEND} frames, custom headers included, to every subscriber of the destination.
+ */
+class StompRelayClusterBusTest {
+    private static final String CHANNEL = "schedule-changed";
+
+    private FakeStompBroker broker;
+    private final List<StompRelayClusterBus> buses = new ArrayList<>();
+
+    @BeforeEach
+    void startBroker() throws IOException {
+        broker = new FakeStompBroker();
+    }
+
+    @AfterEach
+    void stop() {
+        buses.forEach(StompRelayClusterBus::close);
+        broker.close();
+    }
+
+    @Test
+    void messagesReachOtherInstancesButNotTheSender() throws InterruptedException {
+        BlockingQueue<String> senderReceived = new LinkedBlockingQueue<>();
+        BlockingQueue<String> peerReceived = new LinkedBlockingQueue<>();
+        StompRelayClusterBus sender = startBus(senderReceived);
+        startBus(peerReceived);
+        await().atMost(Duration.ofSeconds(5)).until(() -> broker.subscriptionCount() == 2);
+
+        sender.publish(CHANNEL, "42");
+
+        assertThat(peerReceived.poll(5, TimeUnit.SECONDS)).isEqualTo("42");
+        assertThat(senderReceived.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(broker.destinations).containsExactly("/topic/test-cluster." + CHANNEL);
+    }
+
+    @Test
+    void reconnectsAndSubscribesAgainWhenTheBrokerDropsTheConnection() throws InterruptedException {
+        BlockingQueue<String> peerReceived = new LinkedBlockingQueue<>();
+        StompRelayClusterBus sender = startBus(new LinkedBlockingQueue<>());
+        startBus(peerReceived);
+        await().atMost(Duration.ofSeconds(5)).until(() -> broker.subscriptionCount() == 2);
+
+        broker.dropConnections();
+        sender.publish(CHANNEL, "lost while reconnecting");
+        await().atMost(Duration.ofSeconds(5)).until(() -> broker.subscriptionCount() == 2);
+        sender.publish(CHANNEL, "7");
+
+        assertThat(peerReceived.poll(5, TimeUnit.SECONDS)).isEqualTo("7");
+    }
+
+    private StompRelayClusterBus startBus(BlockingQueue<String> received) {
+        StompRelayClusterBus bus = new StompRelayClusterBus("127.0.0.1", broker.port(), "guest", "guest", "",
+                "/topic/test-cluster.", Duration.ofMillis(100));
+        bus.subscribe(CHANNEL, received::add);
+        buses.add(bus);
+        return bus;
+    }
+
+    private static final class FakeStompBroker implements AutoCloseable {
+        private final ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        private final List<Connection> connections = new CopyOnWriteArrayList<>();
+        private final AtomicInteger messageIds = new AtomicInteger();
+        final List<String> destinations = new CopyOnWriteArrayList<>();
+
+        FakeStompBroker() throws IOException {
+            Thread acceptor = new Thread(this::accept, "fake-stomp-broker");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        int subscriptionCount() {
+            return connections.stream().mapToInt(connection -> connection.subscriptions.size()).sum();
+        }
+
+        void dropConnections() {
+            connections.forEach(Connection::close);
+            await().atMost(Duration.ofSeconds(5)).until(connections::isEmpty);
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Connection connection = new Connection(serverSocket.accept());
+                    connections.add(connection);
+                    Thread reader = new Thread(connection::read, "fake-stomp-connection");
+                    reader.setDaemon(true);
+                    reader.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void deliver(Map<String, String> headers, String body) {
+            String destination = headers.get("destination");
+            if (!destinations.contains(destination)) {
+                destinations.add(destination);
+            }
+            for (Connection connection : connections) {
+                connection.subscriptions.forEach((id, subscribed) -> {
+                    if (subscribed.equals(destination)) {
+                        Map<String, String> message = new LinkedHashMap<>(headers);
+                        message.remove("content-length");
+                        message.put("subscription", id);
+                        message.put("message-id", Integer.toString(messageIds.incrementAndGet()));
+                        connection.send("MESSAGE", message, body);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                serverSocket.close();
+            } catch (IOException ignored) {
+                // already closed
+            }
+            connections.forEach(Connection::close);
+        }
+
+        private final class Connection {
+            private final Socket socket;
+            private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+
+            Connection(Socket socket) {
+                this.socket = socket;
+            }
+
+            void read() {
+                try (InputStream in = socket.getInputStream()) {
+                    ByteArrayOutputStream frame = new ByteArrayOutputStream();
+                    int next;
+                    while ((next = in.read()) != -1) {
+                        if (next != 0) {
+                            frame.write(next);
+                            continue;
+                        }
+                        handle(frame.toString(StandardCharsets.UTF_8).stripLeading());
+                        frame.reset();
+                    }
+                } catch (IOException ignored) {
+                    // connection dropped
+                } finally {
+                    close();
+                }
+            }
+
+            private void handle(String frame) {
+                int bodyStart = frame.indexOf("\n\n");
+                String[] lines = frame.substring(0, bodyStart).split("\n");
+                String body = frame.substring(bodyStart + 2);
+                Map<String, String> headers = new LinkedHashMap<>();
+                for (int i = 1; i < lines.length; i++) {
+                    int colon = lines[i].indexOf(':');
+                    headers.putIfAbsent(lines[i].substring(0, colon), lines[i].substring(colon + 1));
+                }
+                switch (lines[0]) {
+                    case "CONNECT", "STOMP" -> send("CONNECTED", Map.of("version", "1.2"), "");
+                    case "SUBSCRIBE" -> subscriptions.put(headers.get("id"), headers.get("destination"));
+                    case "SEND" -> deliver(headers, body);
+                    case "DISCONNECT" -> close();
+                    default -> {
+                    }
+                }
+            }
+
+            synchronized void send(String command, Map<String, String> headers, String body) {
+                StringBuilder frame = new StringBuilder(command).append('\n');
+                headers.forEach((name, value) -> frame.append(name).append(':').append(value).append('\n'));
+                frame.append('\n').append(body).append('\0');
+                try {
+                    OutputStream out = socket.getOutputStream();
+                    out.write(frame.toString().getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                } catch (IOException ignored) {
+                    // connection dropped
+                }
+            }
+
+            void close() {
+                connections.remove(this);
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // already closed
+                }
+            }
+        }
+    }
+}
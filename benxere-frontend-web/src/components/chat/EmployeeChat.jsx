@@ -57,7 +57,10 @@ const EmployeeChat = ({ open, onClose, employee }) => {
           })));
           
           // Mark messages as read
-          await chatService.markMessageAsRead(employee.userId);
+          const lastShown = history[history.length - 1];
+          if (lastShown) {
+            await chatService.markMessageAsRead(employee.userId, lastShown.id);
+          }
           
           // Set up real-time message handler
           messageHandler = (message) => {
@@ -67,7 +70,7 @@ const EmployeeChat = ({ open, onClose, employee }) => {
                 sentAt: message.sentAt || new Date().toISOString()
               }]);
               if (message.senderId === employee.userId) {
-                chatService.markMessageAsRead(employee.userId);
+                chatService.markMessageAsRead(employee.userId, message.id);
               }
             }
           };
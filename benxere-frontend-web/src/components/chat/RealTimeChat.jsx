@@ -198,15 +198,17 @@ const RealTimeChat = ({
           console.log('Received chat history:', history);
           if (history && Array.isArray(history)) {
             setMessages(history);
+            // Mark messages as read
+            const lastShown = history[history.length - 1];
+            if (lastShown) {
+              websocketService.markMessagesAsRead(otherUserId, lastShown.id);
+            }
           }
         } catch (historyError) {
           console.error('Failed to fetch chat history:', historyError);
           // Continue even if history fetch fails
         }
         
-        // Mark messages as read
-        websocketService.markMessagesAsRead(otherUserId);
-        
         return () => {
           // Clean up message handler
           unsubscribe();
@@ -256,7 +258,7 @@ const RealTimeChat = ({
       
       // Mark message as read if received from other user
       if (message.senderId === otherUserId && !message.isRead) {
-        websocketService.markMessagesAsRead(otherUserId);
+        websocketService.markMessagesAsRead(otherUserId, message.id);
       }
     }
   };
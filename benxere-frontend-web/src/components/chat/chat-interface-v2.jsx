@@ -7,7 +7,7 @@ import { getMyInfo } from '../../services/user-service';
 const ChatMessage = ({ message, isUser, onMessageRead }) => {
   useEffect(() => {
     if (!isUser && !message.isRead) {
-      onMessageRead(message.senderId);
+      onMessageRead(message.senderId, message.id);
     }
   }, [message, isUser, onMessageRead]);
 
@@ -131,9 +131,9 @@ const ChatInterfaceV2 = ({ receiverId, receiverEmail, onClose }) => {
     }, 100);
   };
 
-  const handleMessageRead = async (senderId) => {
+  const handleMessageRead = async (senderId, messageId) => {
     try {
-      await websocketService.markMessagesAsRead(senderId);
+      await websocketService.markMessagesAsRead(senderId, messageId);
       console.log('Marked messages from', senderId, 'as read');
       
       setMessages(prevMessages => 
@@ -141,7 +141,7 @@ const GlobalChatButton = () => {
     setIsExpanded(true);
     
     if (chat.unreadCount > 0) {
-      websocketService.markMessagesAsRead(chat.partnerId)
+      websocketService.markMessagesAsRead(chat.partnerId, chat.lastMessageId)
         .then(() => {
           fetchConversations();
         })
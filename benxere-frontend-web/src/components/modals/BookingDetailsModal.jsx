@@ -12,6 +12,7 @@ import { getLocationNameByCode } from '../../utils/load-location';
 import websocketService from '../../services/websocket-service';
 import { getAvailableCustomerCare } from '../../services/user-service';
 import { getScheduleIssues, getScheduleStatus } from '../../services/schedule-service';
+import { getSeatQRCodeImage } from '../../services/seat-service';
 
 const BookingDetailsModal = ({
   isOpen,
@@ -30,6 +31,7 @@ const BookingDetailsModal = ({
   const [scheduleStatus, setScheduleStatus] = useState(null);
   const [loadingIssues, setLoadingIssues] = useState(false);
   const [loadingStatus, setLoadingStatus] = useState(false);
+  const [qrCodeImage, setQrCodeImage] = useState(null);
   
   const ownerId = scheduleDetails?.bus?.owner?.userId;
   
@@ -39,6 +41,35 @@ const BookingDetailsModal = ({
       fetchScheduleStatus();
     }
   }, [isOpen, scheduleDetails]);
+
+  useEffect(() => {
+    const seat = seatDetails?.find(s => s.seatId === selectedSeat);
+    if (!seat?.booked) {
+      setQrCodeImage(null);
+      return;
+    }
+    let imageUrl = null;
+    let cancelled = false;
+    getSeatQRCodeImage(seat.seatId)
+      .then(url => {
+        imageUrl = url;
+        if (cancelled) {
+          URL.revokeObjectURL(url);
+        } else {
+          setQrCodeImage(url);
+        }
+      })
+      .catch(error => {
+        console.error('Error fetching seat QR code:', error);
+        setQrCodeImage(null);
+      });
+    return () => {
+      cancelled = true;
+      if (imageUrl) {
+        URL.revokeObjectURL(imageUrl);
+      }
+    };
+  }, [selectedSeat, seatDetails]);
   
   const fetchScheduleIssues = async () => {
     if (!scheduleDetails?.scheduleId) return;
@@ -543,10 +574,10 @@ const BookingDetailsModal = ({
                       Mã QR cho ghế {seatDetails.find(s => s.seatId === selectedSeat)?.seatNumber}
                     </Typography>
                     <div className="flex flex-col items-center">
-                      {seatDetails.find(s => s.seatId === selectedSeat)?.qrCodeData ? (
+                      {seatDetails.find(s => s.seatId === selectedSeat)?.booked && qrCodeImage ? (
                         <div className="relative">
                           <img 
-                            src={`data:image/png;base64,${seatDetails.find(s => s.seatId === selectedSeat).qrCodeData}`} 
+                            src={qrCodeImage} 
                             alt={`QR Code for seat ${seatDetails.find(s => s.seatId === selectedSeat).seatNumber}`}
                             className="w-56 h-56 mx-auto border border-gray-200 rounded-lg" 
                           />
@@ -147,12 +147,12 @@ class ChatService {
     }
   }
 
-  async markMessageAsRead(senderId) {
+  async markMessageAsRead(senderId, lastReadMessageId) {
     try {
       if (!websocketService.isConnected()) {
         await this.connect();
       }
-      await websocketService.markMessagesAsRead(senderId);
+      await websocketService.markMessagesAsRead(senderId, lastReadMessageId);
     } catch (error) {
       console.error('Error marking message as read:', error);
     }
@@ -60,4 +60,13 @@ export const getSeatsByScheduleId = async (scheduleId) => {
     }
   });
   return response.data;
-};
\ No newline at end of file
+};
+export const getSeatQRCodeImage = async (seatId) => {
+  const response = await API.get(`/api/qrcode/seat/${seatId}`, {
+    headers: {
+      'Authorization': `Bearer ${getToken()}`
+    },
+    responseType: 'blob'
+  });
+  return URL.createObjectURL(response.data);
+};
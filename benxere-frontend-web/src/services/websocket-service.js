@@ -103,6 +103,13 @@ class WebSocketService {
     this._client.publish({ destination, body: payload, headers });
   }
 
+  // Reports that everything from partnerId up to and including lastReadMessageId has been shown.
+  markMessagesAsRead(partnerId, lastReadMessageId) {
+    if (partnerId == null || lastReadMessageId == null) return Promise.resolve();
+    this.send('/app/chat.read', { partnerId, lastReadMessageId });
+    return Promise.resolve();
+  }
+
   isConnected() {
     return !!(this._client && this._connected);
   }